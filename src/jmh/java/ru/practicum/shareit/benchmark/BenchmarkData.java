@@ -0,0 +1,76 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.comments.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные наборы данных для бенчмарков: одинаковые между запусками, чтобы результаты были сравнимы.
+ */
+@UtilityClass
+public final class BenchmarkData {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    public static List<BookingView> bookingViews(int size) {
+        List<BookingView> bookings = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            bookings.add(new BookingView(i, BASE.plusDays(i), BASE.plusDays(i + 1), BookingStatus.APPROVED,
+                    i % 100, "Дрель " + i, "Ударная дрель " + i, true, null,
+                    i % 10, "owner" + i % 10, "owner" + i % 10 + "@mail.com",
+                    i % 1000, "booker" + i % 1000, "booker" + i % 1000 + "@mail.com"));
+        }
+        return bookings;
+    }
+
+    public static List<ItemView> itemViews(int size) {
+        List<ItemView> items = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            items.add(new ItemView(i, "Дрель " + i, "Ударная дрель " + i, true, null,
+                    1L, "owner", "owner@mail.com"));
+        }
+        return items;
+    }
+
+    public static List<CommentView> commentViews(int size) {
+        List<CommentView> comments = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            comments.add(new CommentView(i, i % 100, "Отличная вещь, всё работает " + i, "author" + i,
+                    BASE.minusHours(i)));
+        }
+        return comments;
+    }
+
+    public static List<ItemRequest> itemRequests(int size) {
+        List<ItemRequest> requests = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            requests.add(ItemRequest.builder()
+                    .id(i)
+                    .description("Нужна дрель на выходные " + i)
+                    .requestorId(i % 1000)
+                    .created(BASE.minusHours(i))
+                    .build());
+        }
+        return requests;
+    }
+
+    public static Booking booking(long id, Item item, User booker) {
+        return Booking.builder()
+                .id(id)
+                .start(BASE.minusDays(id))
+                .end(BASE.minusDays(id).plusHours(3))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
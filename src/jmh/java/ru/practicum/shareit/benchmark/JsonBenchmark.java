@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapperDto;
+import ru.practicum.shareit.comments.dto.CommentMapperDto;
+import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemMapperDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов списков в JSON тем же ObjectMapper, что собирает Spring Boot.
+ * Запуск: mvn -Pjmh verify -Djmh.args="JsonBenchmark -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingDto> bookings;
+    private List<ItemResponseDto> items;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        bookings = BookingMapperDto.toListBookingDto(BenchmarkData.bookingViews(size));
+
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.com").build();
+        Item item = Item.builder().id(1L).name("Дрель").description("Ударная дрель").available(true).build();
+        List<CommentResponseDto> comments = CommentMapperDto.toListComment(BenchmarkData.commentViews(5));
+        items = new ArrayList<>(size);
+        for (ItemView view : BenchmarkData.itemViews(size)) {
+            items.add(ItemMapperDto.toItemResponseDto(view, BenchmarkData.booking(1L, item, booker),
+                    BenchmarkData.booking(2L, item, booker), comments));
+        }
+    }
+
+    @Benchmark
+    public byte[] bookingDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] itemResponseDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
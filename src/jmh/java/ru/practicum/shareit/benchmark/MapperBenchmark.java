@@ -0,0 +1,92 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapperDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comments.dto.CommentMapperDto;
+import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.comments.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemMapperDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestOutputDto;
+import ru.practicum.shareit.itemRequest.mapper.ItemRequestMapper;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость маппинга проекций и сущностей в DTO на размерах списков, которые отдают эндпоинты.
+ * Запуск: mvn -Pjmh verify -Djmh.args="MapperBenchmark -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private List<BookingView> bookings;
+    private List<ItemView> items;
+    private List<CommentView> comments;
+    private List<ItemRequest> requests;
+    private Booking lastBooking;
+    private Booking nextBooking;
+    private List<CommentResponseDto> itemComments;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookingViews(size);
+        items = BenchmarkData.itemViews(size);
+        comments = BenchmarkData.commentViews(size);
+        requests = BenchmarkData.itemRequests(size);
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.com").build();
+        Item item = Item.builder().id(1L).name("Дрель").description("Ударная дрель").available(true).build();
+        lastBooking = BenchmarkData.booking(1L, item, booker);
+        nextBooking = BenchmarkData.booking(2L, item, booker);
+        itemComments = CommentMapperDto.toListComment(BenchmarkData.commentViews(5));
+    }
+
+    @Benchmark
+    public List<BookingDto> toListBookingDto() {
+        return BookingMapperDto.toListBookingDto(bookings);
+    }
+
+    @Benchmark
+    public List<ItemResponseDto> toItemResponseDto() {
+        List<ItemResponseDto> result = new ArrayList<>(items.size());
+        for (ItemView item : items) {
+            result.add(ItemMapperDto.toItemResponseDto(item, lastBooking, nextBooking, itemComments));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CommentResponseDto> toListComment() {
+        return CommentMapperDto.toListComment(comments);
+    }
+
+    @Benchmark
+    public List<ItemRequestOutputDto> toItemRequestOutputList() {
+        return ItemRequestMapper.toItemRequestOutputList(requests);
+    }
+}
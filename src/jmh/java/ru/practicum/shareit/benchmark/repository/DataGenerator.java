@@ -0,0 +1,149 @@
+package ru.practicum.shareit.benchmark.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет таблицы синтетическими данными пачечными JDBC-вставками в обход JPA.
+ * Бронирования одной вещи идут друг за другом без пересечений, поэтому данные проходят
+ * и exclusion constraint PostgreSQL. После вставки последовательности id сдвигаются за максимальный id.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataGenerator {
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataScale scale;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    public void generate() {
+        Random random = new Random(scale.getSeed());
+        long started = System.nanoTime();
+        users();
+        requests(random);
+        items(random);
+        bookings(random);
+        comments(random);
+        restartSequence("users_id_seq", scale.getUsers());
+        restartSequence("item_requests_id_seq", scale.getRequests());
+        restartSequence("items_id_seq", scale.getItems());
+        restartSequence("bookings_id_seq", scale.getBookings());
+        restartSequence("comments_id_seq", scale.getComments());
+        log.info("Сгенерированы данные ({}) за {} мс", scale, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Владелец вещи с перекосом: при ownerSkew > 1 большая часть вещей у первых пользователей.
+     */
+    private long owner(Random random) {
+        return 1 + (long) (scale.getUsers() * Math.pow(random.nextDouble(), scale.getOwnerSkew()));
+    }
+
+    private void users() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= scale.getUsers(); id++) {
+            rows.add(new Object[]{id, "user" + id, "user" + id + "@mail.com"});
+            rows = flush("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+        }
+        flushAll("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+    }
+
+    private void requests(Random random) {
+        String sql = "INSERT INTO item_requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= scale.getRequests(); id++) {
+            rows.add(new Object[]{id, "Нужна вещь " + id, 1 + random.nextInt(scale.getUsers()),
+                    Timestamp.valueOf(now.minusHours(random.nextInt(24 * 365)))});
+            rows = flush(sql, rows);
+        }
+        flushAll(sql, rows);
+    }
+
+    private void items(Random random) {
+        String sql = "INSERT INTO items (id, name, description, available, owner_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= scale.getItems(); id++) {
+            Long requestId = scale.getRequests() > 0 && random.nextInt(10) == 0
+                    ? (long) (1 + random.nextInt(scale.getRequests())) : null;
+            String kind = random.nextBoolean() ? "дрель" : "пила";
+            rows.add(new Object[]{id, "Вещь " + id, "Описание вещи " + id + ": " + kind, random.nextInt(10) != 0,
+                    owner(random), requestId});
+            rows = flush(sql, rows);
+        }
+        flushAll(sql, rows);
+    }
+
+    /**
+     * Половина бронирований в прошлом, половина в будущем; прошлые WAITING не создаются,
+     * чтобы данные не менялись фоновой отменой просроченных бронирований.
+     */
+    private void bookings(Random random) {
+        String sql = "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 0)";
+        long hoursPerItem = 36L * scale.getBookings() / Math.max(1, scale.getItems());
+        LocalDateTime origin = now.minusHours(hoursPerItem / 2);
+        long[] cursor = new long[scale.getItems() + 1];
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= scale.getBookings(); id++) {
+            int item = 1 + random.nextInt(scale.getItems());
+            LocalDateTime start = origin.plusHours(cursor[item] + random.nextInt(24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(47));
+            cursor[item] = ChronoUnit.HOURS.between(origin, end);
+            rows.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(end), item,
+                    1 + random.nextInt(scale.getUsers()), status(random, start).name()});
+            rows = flush(sql, rows);
+        }
+        flushAll(sql, rows);
+    }
+
+    private BookingStatus status(Random random, LocalDateTime start) {
+        int roll = random.nextInt(10);
+        if (roll < 7) {
+            return BookingStatus.APPROVED;
+        }
+        if (roll < 9) {
+            return start.isAfter(now) ? BookingStatus.WAITING : BookingStatus.CANCELED;
+        }
+        return BookingStatus.REJECTED;
+    }
+
+    private void comments(Random random) {
+        String sql = "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= scale.getComments(); id++) {
+            rows.add(new Object[]{id, "Отзыв " + id, 1 + random.nextInt(scale.getItems()),
+                    1 + random.nextInt(scale.getUsers()), Timestamp.valueOf(now.minusHours(random.nextInt(24 * 365)))});
+            rows = flush(sql, rows);
+        }
+        flushAll(sql, rows);
+    }
+
+    private List<Object[]> flush(String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH_SIZE) {
+            return rows;
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private void flushAll(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private void restartSequence(String sequence, long maxId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+    }
+}
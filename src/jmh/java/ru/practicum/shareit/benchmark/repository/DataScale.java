@@ -0,0 +1,41 @@
+package ru.practicum.shareit.benchmark.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Объёмы синтетических данных. Значения по умолчанию рассчитаны на быстрый прогон,
+ * масштаб продакшена задаётся системными свойствами bench.*.
+ */
+@Getter
+@Builder
+public class DataScale {
+    private final int users;
+    private final int items;
+    private final int requests;
+    private final int bookings;
+    private final int comments;
+    /**
+     * Степень перекоса владельцев: 1 — равномерно, больше 1 — вещи сосредоточены у пользователей с малыми id.
+     */
+    private final double ownerSkew;
+    private final long seed;
+
+    public static DataScale fromSystemProperties() {
+        return DataScale.builder()
+                .users(Integer.getInteger("bench.users", 10_000))
+                .items(Integer.getInteger("bench.items", 20_000))
+                .requests(Integer.getInteger("bench.requests", 5_000))
+                .bookings(Integer.getInteger("bench.bookings", 200_000))
+                .comments(Integer.getInteger("bench.comments", 20_000))
+                .ownerSkew(Double.parseDouble(System.getProperty("bench.owner-skew", "3")))
+                .seed(Long.getLong("bench.seed", 42L))
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + users + ", items=" + items + ", requests=" + requests + ", bookings=" + bookings
+                + ", comments=" + comments + ", ownerSkew=" + ownerSkew + ", seed=" + seed;
+    }
+}
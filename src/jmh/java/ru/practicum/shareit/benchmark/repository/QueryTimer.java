@@ -0,0 +1,85 @@
+package ru.practicum.shareit.benchmark.repository;
+
+import org.hibernate.stat.Statistics;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Замеряет запрос: каждая итерация выполняется в отдельной транзакции, которая всегда откатывается,
+ * поэтому изменяющие запросы не портят данные. Печатает p50/p99, число строк результата и число
+ * SQL-запросов на вызов по статистике Hibernate.
+ */
+public class QueryTimer {
+    private final TransactionTemplate transactionTemplate;
+    private final Statistics statistics;
+    private final int warmup;
+    private final int iterations;
+    private final PrintStream out;
+
+    public QueryTimer(TransactionTemplate transactionTemplate, Statistics statistics, int warmup, int iterations,
+                      PrintStream out) {
+        this.transactionTemplate = transactionTemplate;
+        this.statistics = statistics;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.out = out;
+        statistics.setStatisticsEnabled(true);
+    }
+
+    public void header() {
+        out.printf("%-72s %10s %10s %10s %10s%n", "query", "p50, ms", "p99, ms", "rows", "statements");
+    }
+
+    public void time(String name, Supplier<?> query) {
+        for (int i = 0; i < warmup; i++) {
+            execute(query);
+        }
+        long[] nanos = new long[iterations];
+        long rows = 0;
+        long statementsBefore = statistics.getPrepareStatementCount();
+        for (int i = 0; i < iterations; i++) {
+            long started = System.nanoTime();
+            Object result = execute(query);
+            nanos[i] = System.nanoTime() - started;
+            rows += rows(result);
+        }
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        Arrays.sort(nanos);
+        out.printf("%-72s %10.3f %10.3f %10d %10.1f%n", name, millis(percentile(nanos, 0.5)),
+                millis(percentile(nanos, 0.99)), rows / iterations, (double) statements / iterations);
+    }
+
+    private Object execute(Supplier<?> query) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return query.get();
+        });
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return result == null ? 0 : 1;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,177 @@
+package ru.practicum.shareit.benchmark.repository;
+
+import org.hibernate.SessionFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.booking.repositories.BookingSpecifications;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.itemRequest.storage.ItemRequestRepository;
+import ru.practicum.shareit.utility.Utility;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+/**
+ * Заполняет встроенную H2 синтетическими данными и замеряет методы BookingRepository, ItemRepository
+ * и ItemRequestRepository. Запуск: mvn -Pjmh test-compile exec:exec@repository-benchmark,
+ * масштаб и число итераций задаются через -Dbench.jvmArgs="-Dbench.bookings=1000000 -Dbench.users=100000".
+ * Для PostgreSQL достаточно передать spring.datasource.* и spring.sql.init.platform=postgresql.
+ */
+public final class RepositoryBenchmarkRunner {
+    private RepositoryBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) {
+        DataScale scale = DataScale.fromSystemProperties();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "shareit.booking-expiry.delay-ms=" + Long.MAX_VALUE,
+                        "shareit.booking-pointers.roll-delay-ms=" + Long.MAX_VALUE,
+                        "logging.level.org.springframework.transaction.interceptor=INFO",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO")
+                .run(args)) {
+            new DataGenerator(context.getBean(JdbcTemplate.class), scale).generate();
+
+            QueryTimer timer = new QueryTimer(
+                    new TransactionTemplate(context.getBean(PlatformTransactionManager.class)),
+                    context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics(),
+                    Integer.getInteger("bench.warmup", 5),
+                    Integer.getInteger("bench.iterations", 50),
+                    System.out);
+            timer.header();
+            bookings(timer, context.getBean(BookingRepository.class), scale);
+            items(timer, context.getBean(ItemRepository.class), scale);
+            requests(timer, context.getBean(ItemRequestRepository.class), scale);
+            windowSearch(timer, context, scale);
+        }
+    }
+
+    private static void bookings(QueryTimer timer, BookingRepository repository, DataScale scale) {
+        Random random = new Random(scale.getSeed());
+        LocalDateTime now = LocalDateTime.now();
+        long hotOwner = 1L;
+        EnumSet<BookingStatus> active = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        timer.time("BookingRepository.getBookingFull",
+                () -> repository.getBookingFull(id(random, scale.getBookings())));
+        timer.time("BookingRepository.findByItem_IdAndStatusInAndEndAfter",
+                () -> repository.findByItem_IdAndStatusInAndEndAfter(id(random, scale.getItems()), active, now));
+        timer.time("BookingRepository.findByItem_IdAndBooker_IdOrderByStartDesc",
+                () -> repository.findByItem_IdAndBooker_IdOrderByStartDesc(id(random, scale.getItems()),
+                        id(random, scale.getUsers())));
+        timer.time("BookingRepository.findTop1BookingByItemIdAndEndIsBeforeAndStatusIs",
+                () -> repository.findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(id(random, scale.getItems()), now,
+                        BookingStatus.APPROVED, Sort.by(DESC, "end")));
+        timer.time("BookingRepository.findTop1BookingByItemIdAndEndIsAfterAndStatusIs",
+                () -> repository.findTop1BookingByItemIdAndEndIsAfterAndStatusIs(id(random, scale.getItems()), now,
+                        BookingStatus.APPROVED, Sort.by(ASC, "end")));
+        timer.time("BookingRepository.findLastAndNextApproved (20 items)",
+                () -> repository.findLastAndNextApproved(LongStream.range(0, 20)
+                        .map(i -> id(random, scale.getItems()))
+                        .boxed()
+                        .collect(Collectors.toList()), now));
+        for (BookingRole role : BookingRole.values()) {
+            long userId = role == BookingRole.OWNER ? hotOwner : id(random, scale.getUsers());
+            timer.time("BookingRepository.findTop " + role + " ALL (user " + userId + ")",
+                    () -> repository.findTop(BookingSpecifications.byRoleAndState(role, userId, BookingState.ALL,
+                            now), Utility.DEFAULT_PAGE_SIZE + 1));
+            timer.time("BookingRepository.findSlice " + role + " FUTURE (user " + userId + ")",
+                    () -> repository.findSlice(BookingSpecifications.byRoleAndState(role, userId,
+                            BookingState.FUTURE, now), Utility.paginationWithoutSort(0, Utility.DEFAULT_PAGE_SIZE)));
+            timer.time("BookingRepository.count " + role + " ALL (user " + userId + ")",
+                    () -> repository.count(BookingSpecifications.byRoleAndState(role, userId, BookingState.ALL,
+                            now)));
+        }
+        timer.time("BookingRepository.findStartedWaitingForUpdate",
+                () -> repository.findStartedWaitingForUpdate(now, 0L, PageRequest.of(0, 100)));
+        timer.time("BookingRepository.updateStatusIfWaiting",
+                () -> repository.updateStatusIfWaiting(id(random, scale.getBookings()), hotOwner,
+                        BookingStatus.APPROVED));
+        timer.time("BookingRepository.cancelWaiting (100 ids)",
+                () -> repository.cancelWaiting(ids(random, scale.getBookings(), 100)));
+    }
+
+    private static void items(QueryTimer timer, ItemRepository repository, DataScale scale) {
+        Random random = new Random(scale.getSeed());
+        timer.time("ItemRepository.findAllByAvailableTrue", repository::findAllByAvailableTrue);
+        timer.time("ItemRepository.findAllFullByIdIn (100 ids)",
+                () -> repository.findAllFullByIdIn(ids(random, scale.getItems(), 100)));
+        timer.time("ItemRepository.findViewsByIdIn (100 ids)",
+                () -> repository.findViewsByIdIn(ids(random, scale.getItems(), 100)));
+        timer.time("ItemRepository.findByIdFull", () -> repository.findByIdFull(id(random, scale.getItems())));
+        timer.time("ItemRepository.findViewsByRequestId",
+                () -> repository.findViewsByRequestId(id(random, scale.getRequests())));
+        timer.time("ItemRepository.findViewsByRequestIdIn (20 ids)",
+                () -> repository.findViewsByRequestIdIn(ids(random, scale.getRequests(), 20)));
+        timer.time("ItemRepository.findViewsByOwnerId (hot owner)", () -> repository.findViewsByOwnerId(1L));
+        timer.time("ItemRepository.findViewsByOwnerId (random owner)",
+                () -> repository.findViewsByOwnerId(id(random, scale.getUsers())));
+    }
+
+    private static void requests(QueryTimer timer, ItemRequestRepository repository, DataScale scale) {
+        Random random = new Random(scale.getSeed());
+        timer.time("ItemRequestRepository.findAllByRequestorIdOrderByCreatedDesc",
+                () -> repository.findAllByRequestorIdOrderByCreatedDesc(id(random, scale.getUsers())));
+        timer.time("ItemRequestRepository.findAllByRequestorIdNot (page 20)",
+                () -> repository.findAllByRequestorIdNot(id(random, scale.getUsers()),
+                        PageRequest.of(0, Utility.DEFAULT_PAGE_SIZE, Sort.by(DESC, "created"))));
+    }
+
+    /**
+     * Поиск свободных в окне вещей: запрос занятых вещей для пачки попаданий, весь поиск с проверкой окна
+     * и проверка одной вещи по индексу интервалов. Для масштаба продакшена — -Dbench.bookings=1000000.
+     */
+    private static void windowSearch(QueryTimer timer, ConfigurableApplicationContext context, DataScale scale) {
+        Random random = new Random(scale.getSeed());
+        BookingRepository bookings = context.getBean(BookingRepository.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        BookingIntervalIndex intervalIndex = context.getBean(BookingIntervalIndex.class);
+        EnumSet<BookingStatus> active = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(7);
+
+        timer.time("BookingRepository.findBusyItemIds (100 ids, 7 days)",
+                () -> bookings.findBusyItemIds(ids(random, scale.getItems(), 100), active, start, end));
+        timer.time("ItemService.findByText window 7 days (page 20)",
+                () -> itemService.findByText("дрель", start, end, 0, Utility.DEFAULT_PAGE_SIZE));
+        timer.time("ItemService.findByText window 7 days (all)",
+                () -> itemService.findByText("дрель", start, end, null, null));
+        timer.time("BookingIntervalIndex.isFree (7 days)",
+                () -> intervalIndex.isFree(id(random, scale.getItems()), start, end));
+    }
+
+    private static long id(Random random, int max) {
+        return 1 + random.nextInt(Math.max(1, max));
+    }
+
+    private static List<Long> ids(Random random, int max, int count) {
+        return LongStream.range(0, count)
+                .map(i -> id(random, max))
+                .boxed()
+                .collect(Collectors.toList());
+    }
+}
@@ -2,12 +2,16 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingListDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import javax.validation.Valid;
@@ -23,6 +27,14 @@ public class BookingController {
 
     private final String xSharer = "X-Sharer-User-Id";
 
+    private final String nextCursorHeader = "X-Next-Cursor";
+
+    private final String totalCountHeader = "X-Total-Count";
+
+    private final String offsetPaging = "offset";
+
+    private final String cursorPaging = "cursor";
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingDto> readBookingById(@RequestHeader(xSharer) Long userId,
                                                       @PathVariable Long bookingId) {
@@ -42,6 +54,15 @@ public class BookingController {
         return new ResponseEntity<>(bookingService.create(userId, bookingCreateDto), HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createBookings(@RequestHeader(xSharer) Long userId,
+                                                                      @RequestBody List<BookingCreateDto>
+                                                                              bookingCreateDtos) {
+        log.info("Получен POST запрос createBookings по эндпоинту /bookings/batch со значениями userId {} и " +
+                "размером пакета {}", userId, bookingCreateDtos.size());
+        return new ResponseEntity<>(bookingService.createAll(userId, bookingCreateDtos), HttpStatus.OK);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<BookingDto> updateBooking(@PathVariable Long bookingId,
                                                     @RequestHeader(xSharer) Long userId,
@@ -65,9 +86,19 @@ public class BookingController {
                                                             @RequestParam(name = "state",
                                                                     defaultValue = "ALL") String state,
                                                             @RequestParam(name = "size", required = false) Integer size,
-                                                            @RequestParam(name = "from", required = false) Integer from) {
+                                                            @RequestParam(name = "from", required = false) Integer from,
+                                                            @RequestParam(name = "paging",
+                                                                    defaultValue = offsetPaging) String paging,
+                                                            @RequestParam(name = "cursor", required = false)
+                                                            String cursor,
+                                                            @RequestParam(name = "includeTotal",
+                                                                    defaultValue = "false") boolean includeTotal) {
         log.info("Получен GET запрос getUserBookings  по эндпоинту /bookings/ со значениями  userID {}", userId);
-        return new ResponseEntity<>(bookingService.getUserBookings(userId, state, from, size), HttpStatus.OK);
+        BookingListDto bookings = isCursorPaging(paging, cursor)
+                ? bookingService.getUserBookingsByCursor(userId, state, cursor, size)
+                : BookingListDto.builder().bookings(bookingService.getUserBookings(userId, state, from, size)).build();
+        Long total = includeTotal ? bookingService.countUserBookings(userId, state) : null;
+        return toResponse(bookings, total);
     }
 
     @GetMapping("/owner")
@@ -75,8 +106,44 @@ public class BookingController {
                                                                @RequestParam(name = "state",
                                                                        defaultValue = "ALL") String state,
                                                                @RequestParam(name = "size", required = false) Integer size,
-                                                               @RequestParam(name = "from", required = false) Integer from) {
+                                                               @RequestParam(name = "from", required = false) Integer from,
+                                                               @RequestParam(name = "paging",
+                                                                       defaultValue = offsetPaging) String paging,
+                                                               @RequestParam(name = "cursor", required = false)
+                                                               String cursor,
+                                                               @RequestParam(name = "includeTotal",
+                                                                       defaultValue = "false") boolean includeTotal) {
         log.info("Получен GET запрос getBookingsByOwner  по эндпоинту /bookings/owner со значениями  userID {}", userId);
-        return new ResponseEntity<>(bookingService.getOwnerBookings(userId, state, from, size), HttpStatus.OK);
+        BookingListDto bookings = isCursorPaging(paging, cursor)
+                ? bookingService.getOwnerBookingsByCursor(userId, state, cursor, size)
+                : BookingListDto.builder().bookings(bookingService.getOwnerBookings(userId, state, from, size)).build();
+        Long total = includeTotal ? bookingService.countOwnerBookings(userId, state) : null;
+        return toResponse(bookings, total);
+    }
+
+    /**
+     * Режим пагинации списков бронирований. paging=offset (по умолчанию) — from/size.
+     * paging=cursor — первая страница keyset-пагинации, токен следующей приходит в X-Next-Cursor;
+     * следующие страницы запрашиваются с cursor=токен, paging тогда можно не указывать.
+     */
+    private boolean isCursorPaging(String paging, String cursor) {
+        if (cursorPaging.equalsIgnoreCase(paging)) {
+            return true;
+        }
+        if (!offsetPaging.equalsIgnoreCase(paging)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown paging: " + paging);
+        }
+        return cursor != null;
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingListDto bookingList, Long total) {
+        HttpHeaders headers = new HttpHeaders();
+        if (bookingList.getNextCursor() != null) {
+            headers.add(nextCursorHeader, bookingList.getNextCursor());
+        }
+        if (total != null) {
+            headers.add(totalCountHeader, String.valueOf(total));
+        }
+        return new ResponseEntity<>(bookingList.getBookings(), headers, HttpStatus.OK);
     }
 }
\ No newline at end of file
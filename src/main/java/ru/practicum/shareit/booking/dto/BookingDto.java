@@ -6,8 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -27,10 +27,10 @@ public class BookingDto {
     @NotNull
     private LocalDateTime end;
 
-    private Item item;
+    @JsonIgnoreProperties({"lastBooking", "nextBooking", "comments"})
+    private ItemDto item;
 
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-    private User booker;
+    private UserDto booker;
 
     @NotNull
     private BookingStatus status;
@@ -2,6 +2,10 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapperDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapperDto;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -13,24 +17,39 @@ public final class BookingMapperDto {
                 .id(booking.getId())
                 .end(booking.getEnd())
                 .start(booking.getStart())
-                .booker(booking.getBooker())
-                .item(booking.getItem())
+                .booker(UserMapperDto.toUserDto(booking.getBooker()))
+                .item(ItemMapperDto.toItemDto(booking.getItem()))
                 .status(booking.getStatus())
                 .build();
     }
 
-    public static Booking fromBookingDto(BookingDto bookingDto) {
-        return Booking.builder()
-                .id(bookingDto.getId())
-                .end(bookingDto.getEnd())
-                .start(bookingDto.getStart())
-                .item(bookingDto.getItem())
-                .booker(bookingDto.getBooker())
-                .status(bookingDto.getStatus())
+    public static BookingDto toBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .end(booking.getEnd())
+                .start(booking.getStart())
+                .booker(UserDto.builder()
+                        .id(booking.getBookerId())
+                        .name(booking.getBookerName())
+                        .email(booking.getBookerEmail())
+                        .build())
+                .item(ItemDto.builder()
+                        .id(booking.getItemId())
+                        .name(booking.getItemName())
+                        .description(booking.getItemDescription())
+                        .available(booking.isItemAvailable())
+                        .requestId(booking.getItemRequestId())
+                        .owner(UserDto.builder()
+                                .id(booking.getOwnerId())
+                                .name(booking.getOwnerName())
+                                .email(booking.getOwnerEmail())
+                                .build())
+                        .build())
+                .status(booking.getStatus())
                 .build();
     }
 
-    public static List<BookingDto> toListBookingDto(List<Booking> bookings) {
+    public static List<BookingDto> toListBookingDto(List<BookingView> bookings) {
         return bookings.stream()
                 .map(BookingMapperDto::toBookingDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Полуинтервал [start, end) активного бронирования вещи.
+ * Порядок задаётся началом и порядковым номером, поэтому id бронирования можно проставить после сохранения.
+ */
+@Getter
+public class BookingInterval {
+    static final Comparator<BookingInterval> ORDER = Comparator.comparing(BookingInterval::getStart)
+            .thenComparingLong(BookingInterval::getSequence);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final long sequence;
+    @Setter
+    private Long bookingId;
+    @Setter
+    private volatile boolean pending;
+
+    public BookingInterval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        this(bookingId, start, end, SEQUENCE.incrementAndGet());
+    }
+
+    private BookingInterval(Long bookingId, LocalDateTime start, LocalDateTime end, long sequence) {
+        this.bookingId = bookingId;
+        this.start = start;
+        this.end = end;
+        this.sequence = sequence;
+    }
+
+    static BookingInterval startingAt(LocalDateTime start) {
+        return new BookingInterval(null, start, start, Long.MIN_VALUE);
+    }
+
+    boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
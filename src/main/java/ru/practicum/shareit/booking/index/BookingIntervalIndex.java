@@ -0,0 +1,314 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.utility.Utility;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Индекс активных (WAITING и APPROVED) бронирований по вещам для проверки пересечений.
+ * Интервалы вещи подгружаются из БД при первом обращении и перечитываются по истечении ttl или после
+ * {@link #invalidate}. Проверка, перечитывание и вставка идут под одним замком вещи, который переживает
+ * перечитывание, поэтому незафиксированный резерв не теряется. Интервалы из БД могут пересекаться
+ * (WAITING-заявки, старые данные), поэтому поиск просматривает все интервалы, начавшиеся не раньше,
+ * чем start минус длина самого длинного интервала вещи.
+ * Найденное пересечение перепроверяется по свежим данным из БД, от гонок между экземплярами
+ * приложения страхует exclusion constraint в PostgreSQL.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    private static final Set<BookingStatus> ACTIVE = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-index.ttl:PT10M}") Duration ttl) {
+        this(bookingRepository, ttl, Clock.systemDefaultZone());
+    }
+
+    public BookingIntervalIndex(BookingRepository bookingRepository, Duration ttl, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Атомарно проверяет, что [start, end) свободен, и резервирует его за вещью.
+     * При откате транзакции резерв снимается.
+     */
+    public BookingInterval reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return withItem(itemId, item -> {
+            if (item.overlaps(start, end, null)) {
+                reload(itemId, item);
+                if (item.overlaps(start, end, null)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Вещь уже забронирована на это время");
+                }
+            }
+            BookingInterval interval = new BookingInterval(null, start, end);
+            interval.setPending(true);
+            item.add(interval);
+            Utility.afterCommit(() -> interval.setPending(false));
+            Utility.afterRollback(() -> remove(itemId, interval));
+            return interval;
+        });
+    }
+
+    /**
+     * Проверяет, что подтверждаемое бронирование не пересекается с другими активными бронированиями вещи.
+     */
+    public void checkApprove(Booking booking) {
+        checkApprove(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public void checkApprove(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        withItem(itemId, item -> {
+            if (item.overlaps(start, end, bookingId)) {
+                reload(itemId, item);
+                if (item.overlaps(start, end, bookingId)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Вещь уже забронирована на это время");
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Убирает бронирование из индекса после фиксации транзакции (отклонение, отмена, удаление).
+     */
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getId());
+    }
+
+    public void release(Long itemId, Long bookingId) {
+        Utility.afterCommit(() -> {
+            ItemIntervals item = items.get(itemId);
+            if (item == null) {
+                return;
+            }
+            synchronized (item) {
+                if (item.intervals != null) {
+                    item.intervals.removeIf(interval -> bookingId.equals(interval.getBookingId()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Помечает интервалы вещи устаревшими после фиксации транзакции: следующее обращение перечитает их из БД.
+     * Нужно, когда бронирования удаляются каскадом в БД в обход индекса (удаление вещи).
+     */
+    public void invalidate(Long itemId) {
+        Utility.afterCommit(() -> {
+            ItemIntervals item = items.get(itemId);
+            if (item != null) {
+                synchronized (item) {
+                    item.loadedAt = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * То же для всех вещей — при удалении пользователя каскадом уходят его вещи и его бронирования чужих вещей.
+     */
+    public void invalidateAll() {
+        Utility.afterCommit(() -> items.values().forEach(item -> {
+            synchronized (item) {
+                item.loadedAt = null;
+            }
+        }));
+    }
+
+    /**
+     * Проверяет, что у вещи нет активных бронирований, пересекающих [start, end).
+     */
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return withItem(itemId, item -> !item.overlaps(start, end, null));
+    }
+
+    /**
+     * Активные бронирования вещи, пересекающие [from, to), в порядке начала.
+     */
+    public List<BookingInterval> busy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return withItem(itemId, item -> {
+            List<BookingInterval> busy = new ArrayList<>();
+            for (BookingInterval candidate : item.candidates(from, to)) {
+                if (candidate.overlaps(from, to)) {
+                    busy.add(candidate);
+                }
+            }
+            return busy;
+        });
+    }
+
+    /**
+     * Снимает закончившиеся интервалы и выбрасывает из индекса вещи, у которых не осталось активных бронирований.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-index.evict-delay-ms:600000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        items.forEach((itemId, item) -> {
+            synchronized (item) {
+                if (item.intervals != null) {
+                    item.evictEnded(now);
+                }
+                if (item.intervals == null || item.intervals.isEmpty()) {
+                    item.evicted = true;
+                    items.remove(itemId, item);
+                }
+            }
+        });
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private <T> T withItem(Long itemId, Function<ItemIntervals, T> action) {
+        while (true) {
+            ItemIntervals item = items.computeIfAbsent(itemId, id -> new ItemIntervals());
+            synchronized (item) {
+                if (item.evicted) {
+                    continue;
+                }
+                if (item.intervals == null) {
+                    item.replace(load(itemId), clock.instant());
+                } else if (item.isStale(clock.instant(), ttl)) {
+                    reload(itemId, item);
+                } else {
+                    item.evictEnded(LocalDateTime.now(clock));
+                }
+                return action.apply(item);
+            }
+        }
+    }
+
+    /**
+     * Перечитывает интервалы вещи из БД, сохраняя незафиксированные резервы. Вызывается под замком вещи.
+     */
+    private void reload(Long itemId, ItemIntervals item) {
+        log.info("Бронирования вещи {} перечитываются из БД", itemId);
+        NavigableSet<BookingInterval> loaded = load(itemId);
+        item.intervals.stream()
+                .filter(BookingInterval::isPending)
+                .forEach(loaded::add);
+        item.replace(loaded, clock.instant());
+    }
+
+    private NavigableSet<BookingInterval> load(Long itemId) {
+        List<Booking> bookings = bookingRepository.findByItem_IdAndStatusInAndEndAfter(itemId, ACTIVE,
+                LocalDateTime.now(clock));
+        NavigableSet<BookingInterval> intervals = new TreeSet<>(BookingInterval.ORDER);
+        for (Booking booking : bookings) {
+            intervals.add(new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd()));
+        }
+        return intervals;
+    }
+
+    private void remove(Long itemId, BookingInterval interval) {
+        ItemIntervals item = items.get(itemId);
+        if (item == null) {
+            return;
+        }
+        synchronized (item) {
+            if (item.intervals != null) {
+                item.intervals.remove(interval);
+            }
+        }
+    }
+
+    /**
+     * Интервалы одной вещи. Объект живёт, пока вещь в индексе, и служит её замком; все поля читаются и
+     * меняются только под ним.
+     */
+    private static final class ItemIntervals {
+        private NavigableSet<BookingInterval> intervals;
+        private Duration longest = Duration.ZERO;
+        private Instant loadedAt;
+        private boolean evicted;
+
+        void replace(NavigableSet<BookingInterval> loaded, Instant now) {
+            intervals = loaded;
+            loadedAt = now;
+            longest = Duration.ZERO;
+            loaded.forEach(this::widen);
+        }
+
+        void add(BookingInterval interval) {
+            intervals.add(interval);
+            widen(interval);
+        }
+
+        boolean isStale(Instant now, Duration ttl) {
+            return loadedAt == null || !loadedAt.plus(ttl).isAfter(now);
+        }
+
+        /**
+         * Интервалы, которые могут пересекать [start, end): начались до end и не раньше start минус самый
+         * длинный интервал вещи.
+         */
+        Iterable<BookingInterval> candidates(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime from = start.minus(longest);
+            if (!from.isBefore(end)) {
+                return List.of();
+            }
+            return intervals.subSet(BookingInterval.startingAt(from), true, BookingInterval.startingAt(end), false);
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludeBookingId) {
+            for (BookingInterval candidate : candidates(start, end)) {
+                if (excludeBookingId != null && excludeBookingId.equals(candidate.getBookingId())) {
+                    continue;
+                }
+                if (candidate.overlaps(start, end)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void evictEnded(LocalDateTime now) {
+            Iterator<BookingInterval> started = intervals.headSet(BookingInterval.startingAt(now), false).iterator();
+            while (started.hasNext()) {
+                BookingInterval interval = started.next();
+                if (!interval.isPending() && !interval.getEnd().isAfter(now)) {
+                    started.remove();
+                }
+            }
+        }
+
+        private void widen(BookingInterval interval) {
+            Duration length = Duration.between(interval.getStart(), interval.getEnd());
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package ru.practicum.shareit.booking.repositories;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 @EnableJpaRepositories
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+        BookingRepositoryCustom {
     void deleteById(Long id);
 
     @Query("SELECT bok FROM Booking bok " +
@@ -26,144 +31,62 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE bok.id = :bookId")
     Optional<Booking> getBookingFull(Long bookId);
 
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) from Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner ow " +
-                    "WHERE bok.booker.id = :bookerId")
-    Page<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "AND bok.status = :status " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) FROM Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE bok.booker.id = :bookerId " +
-                    "AND bok.status = :status")
-    Page<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) from Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE it.owner.id = :ownerId")
-    Page<Booking> findByItemOwnerOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "AND bok.status = :status " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) FROM Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "where it.owner.id = :ownerId " +
-                    "AND bok.status = :status")
-    Page<Booking> findByItemOwnerAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "AND bok.end < :now " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) FROM Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE bok.booker.id = :bookerId " +
-                    "AND bok.end < :now")
-    Page<Booking> findByBookerIdAndEndLessThanOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "AND bok.start > :now " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) FROM Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE bok.booker.id = :bookerId " +
-                    "AND bok.end < :now")
-    Page<Booking> findByBookerIdAndStartGreaterThanOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "AND bok.end < :now " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) FROM Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE it.owner.id =: ownerId " +
-                    "AND bok.end < :now")
-    Page<Booking> findByItemOwnerAndEndLessThanOrderByStartDesc(Long ownerId, LocalDateTime now,Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "AND bok.start > :now " +
-            "ORDER BY bok.start DESC",
-            countQuery = "SELECT COUNT(bok) from Booking bok " +
-                    "JOIN bok.item it " +
-                    "JOIN it.owner " +
-                    "WHERE it.owner.id = :ownerID " +
-                    "AND bok.start > :now")
-    Page<Booking> findByItemOwnerAndStartGreaterThanOrderByStartDesc(Long ownerId, LocalDateTime now,Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "AND bok.start < :now " +
-            "AND bok.end > :now1 " +
-            "ORDER BY bok.start DESC",
-    countQuery = "SELECT COUNT(bok) from Booking bok " +
-            "JOIN bok.item it " +
-            "JOIN it.owner " +
-            "WHERE bok.booker.id = :bookerId " +
-            "AND bok.start < :now " +
-            "AND bok.end > :now1")
-    Page<Booking> findByBookerIdAndStartLessThanAndEndGreaterThanOrderByStartDesc(Long bookerId, LocalDateTime now,
-                                                                                  LocalDateTime now1, Pageable pageable);
-
-    @Query(value = "SELECT bok FROM Booking bok " +
-            "JOIN FETCH bok.item it " +
-            "JOIN FETCH it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "AND bok.start < :now " +
-            "AND bok.end > :now1 " +
-            "ORDER BY bok.start DESC",
-    countQuery = "SELECT COUNT(bok) FROM  Booking bok " +
-            "JOIN bok.item it " +
-            "JOIN it.owner " +
-            "WHERE it.owner.id = :ownerId " +
-            "AND bok.start < :now " +
-            "AND bok.end > now1")
-    Page<Booking> findByItemOwnerAndStartLessThanAndEndGreaterThanOrderByStartDesc(Long ownerId, LocalDateTime now,
-                                                                                   LocalDateTime now1,Pageable pageable);
-
-    Booking findFirstByItem_idAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
-
-    Booking findFirstByItem_idAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    /**
+     * Переводит бронирование из WAITING в новый статус одним условным UPDATE, владелец вещи проверяется
+     * в том же запросе. Возвращает число изменённых строк: 0, если статус уже сменил параллельный запрос.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking bok SET bok.status = :status, bok.version = bok.version + 1 " +
+            "WHERE bok.id = :bookingId " +
+            "AND bok.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND EXISTS (SELECT it.id FROM Item it WHERE it.id = bok.item.id AND it.owner.id = :ownerId)")
+    int updateStatusIfWaiting(Long bookingId, Long ownerId, BookingStatus status);
+
+    /**
+     * Пачка WAITING-бронирований с уже наступившим началом в порядке id, строки блокируются до конца транзакции.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT bok FROM Booking bok " +
+            "WHERE bok.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND bok.start < :now AND bok.id > :afterId " +
+            "ORDER BY bok.id")
+    List<Booking> findStartedWaitingForUpdate(LocalDateTime now, Long afterId, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking bok SET bok.status = ru.practicum.shareit.booking.model.BookingStatus.CANCELED, " +
+            "bok.version = bok.version + 1 " +
+            "WHERE bok.id IN :ids AND bok.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int cancelWaiting(Collection<Long> ids);
+
+    List<Booking> findByItem_IdAndStatusInAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                      LocalDateTime now);
+
+    /**
+     * Id вещей из itemIds, у которых есть бронирование с одним из статусов, пересекающее [start, end).
+     */
+    @Query("SELECT DISTINCT bok.item.id FROM Booking bok " +
+            "WHERE bok.item.id IN :itemIds AND bok.status IN :statuses " +
+            "AND bok.start < :end AND bok.end > :start")
+    List<Long> findBusyItemIds(Collection<Long> itemIds, Collection<BookingStatus> statuses, LocalDateTime start,
+                               LocalDateTime end);
 
     List<Booking> findByItem_IdAndBooker_IdOrderByStartDesc(Long itemId, Long userId);
 
+    /**
+     * Последние закончившиеся и ближайшие незакончившиеся подтверждённые бронирования вещей одним запросом,
+     * с арендатором. При совпадении end у одной вещи может вернуться несколько строк, порядок — по id.
+     */
+    @Query("SELECT bok FROM Booking bok " +
+            "JOIN FETCH bok.booker " +
+            "WHERE bok.item.id IN :itemIds " +
+            "AND bok.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND (bok.end = (SELECT MAX(prev.end) FROM Booking prev WHERE prev.item.id = bok.item.id " +
+            "AND prev.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED AND prev.end < :now) " +
+            "OR bok.end = (SELECT MIN(nxt.end) FROM Booking nxt WHERE nxt.item.id = bok.item.id " +
+            "AND nxt.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED AND nxt.end > :now)) " +
+            "ORDER BY bok.id")
+    List<Booking> findLastAndNextApproved(Collection<Long> itemIds, LocalDateTime now);
+
     List<Booking> findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(Long itemId, LocalDateTime now,
                                                                    BookingStatus approved, Sort end);
 
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+/**
+ * Списки бронирований читаются проекцией {@link BookingView}: выбираются только нужные ответу колонки,
+ * сущности и прокси в контекст персистентности не попадают.
+ */
+public interface BookingRepositoryCustom {
+    List<BookingView> findTop(Specification<Booking> specification, int limit);
+
+    /**
+     * Страница без count-запроса: выбирается size + 1 строк, лишняя строка только сообщает о наличии следующей.
+     */
+    Slice<BookingView> findSlice(Specification<Booking> specification, Pageable pageable);
+}
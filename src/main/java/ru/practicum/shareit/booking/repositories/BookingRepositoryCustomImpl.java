@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findTop(Specification<Booking> specification, int limit) {
+        return createQuery(specification)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Slice<BookingView> findSlice(Specification<Booking> specification, Pageable pageable) {
+        int pageSize = pageable.getPageSize();
+        List<BookingView> content = createQuery(specification)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageSize;
+        return new SliceImpl<>(hasNext ? content.subList(0, pageSize) : content, pageable, hasNext);
+    }
+
+    private TypedQuery<BookingView> createQuery(Specification<Booking> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = cb.createQuery(BookingView.class);
+        Root<Booking> root = query.from(Booking.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Join<Booking, Item> item = BookingSpecifications.join(root, "item", JoinType.INNER);
+        Join<Item, User> owner = BookingSpecifications.join(item, "owner", JoinType.INNER);
+        Join<Booking, User> booker = BookingSpecifications.join(root, "booker", JoinType.LEFT);
+        query.select(cb.construct(BookingView.class,
+                root.get("id"), root.get("start"), root.get("end"), root.get("status"),
+                item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                item.get("requestId"),
+                owner.get("id"), owner.get("name"), owner.get("email"),
+                booker.get("id"), booker.get("name"), booker.get("email")));
+        return entityManager.createQuery(query);
+    }
+}
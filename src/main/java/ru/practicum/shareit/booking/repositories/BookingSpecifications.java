@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking.repositories;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Единственная точка построения запросов списков бронирований: роль (booker/owner) x BookingState.
+ * Для выборки сущностей item, owner и booker подтягиваются одним fetch join, для выборки проекции
+ * используется обычный join к items, для count-запроса join к items добавляется только для роли OWNER.
+ */
+@UtilityClass
+public final class BookingSpecifications {
+
+    public static Specification<Booking> byRoleAndState(BookingRole role, Long userId, BookingState state,
+                                                        LocalDateTime now) {
+        return (root, query, cb) -> {
+            boolean countQuery = isCountQuery(query);
+            From<?, Item> item;
+            if (countQuery) {
+                item = joinItemForCount(root, role);
+            } else if (Booking.class.equals(query.getResultType())) {
+                item = fetchGraph(root);
+            } else {
+                item = join(root, "item", JoinType.INNER);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(byRole(root, item, cb, role, userId));
+            predicates.addAll(byState(root, cb, state, now));
+
+            if (!countQuery) {
+                query.orderBy(cb.desc(root.get("start")), cb.desc(root.get("id")));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Booking> byId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    /**
+     * Keyset-условие для порядка (start DESC, id DESC): строки строго после переданной позиции.
+     */
+    public static Specification<Booking> after(LocalDateTime start, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), start),
+                cb.and(cb.equal(root.get("start"), start), cb.lessThan(root.get("id"), id)));
+    }
+
+    /**
+     * Возвращает уже добавленный join по атрибуту либо создаёт новый, чтобы спецификация и select
+     * проекции не порождали дублирующих join-ов.
+     */
+    @SuppressWarnings("unchecked")
+    public static <X, Y> Join<X, Y> join(From<?, X> from, String attribute, JoinType type) {
+        for (Join<X, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == type) {
+                return (Join<X, Y>) join;
+            }
+        }
+        return from.join(attribute, type);
+    }
+
+    private static Predicate byRole(Root<Booking> root, From<?, Item> item, CriteriaBuilder cb,
+                                    BookingRole role, Long userId) {
+        if (role == BookingRole.OWNER) {
+            return cb.equal(item.get("owner").get("id"), userId);
+        }
+        return cb.equal(root.get("booker").get("id"), userId);
+    }
+
+    private static List<Predicate> byState(Root<Booking> root, CriteriaBuilder cb, BookingState state,
+                                           LocalDateTime now) {
+        List<Predicate> predicates = new ArrayList<>();
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(root.get("start"), now));
+                predicates.add(cb.greaterThan(root.get("end"), now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(root.get("end"), now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(root.get("start"), now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(root.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(root.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+        return predicates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static From<?, Item> fetchGraph(Root<Booking> root) {
+        Fetch<Booking, Item> item = root.fetch("item", JoinType.INNER);
+        item.fetch("owner", JoinType.INNER);
+        root.fetch("booker", JoinType.LEFT);
+        return (Join<Booking, Item>) item;
+    }
+
+    private static From<?, Item> joinItemForCount(Root<Booking> root, BookingRole role) {
+        return role == BookingRole.OWNER ? root.join("item", JoinType.INNER) : null;
+    }
+
+    private static boolean isCountQuery(CriteriaQuery<?> query) {
+        return Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отменяет бронирования, оставшиеся в WAITING после начала. Проход идёт пачками по id (keyset),
+ * между пачками выдерживается пауза, чтобы ограничить нагрузку на таблицу бронирований.
+ */
+@Slf4j
+@Component
+public class BookingExpiryRoller {
+    private final BookingExpiryService expiryService;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong canceled = new AtomicLong();
+    private final AtomicLong lastRunCanceled = new AtomicLong();
+
+    public BookingExpiryRoller(BookingExpiryService expiryService,
+                               @Value("${shareit.booking-expiry.batch-size:100}") int batchSize,
+                               @Value("${shareit.booking-expiry.batch-pause:PT0.1S}") Duration batchPause) {
+        this.expiryService = expiryService;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.delay-ms:60000}")
+    public void roll() {
+        runs.incrementAndGet();
+        long runCanceled = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = expiryService.cancelStartedWaiting(afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            batches.incrementAndGet();
+            canceled.addAndGet(ids.size());
+            runCanceled += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize && pause());
+        lastRunCanceled.set(runCanceled);
+    }
+
+    private boolean pause() {
+        if (batchPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Отмена просроченных бронирований прервана");
+            return false;
+        }
+    }
+
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getCanceledCount() {
+        return canceled.get();
+    }
+
+    public long getLastRunCanceledCount() {
+        return lastRunCanceled.get();
+    }
+}
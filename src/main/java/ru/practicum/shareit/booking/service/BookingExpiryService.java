@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.List;
+
+public interface BookingExpiryService {
+    /**
+     * Отменяет одну пачку бронирований, оставшихся в WAITING после начала, с id больше afterId.
+     * Возвращает id отменённых бронирований по возрастанию.
+     */
+    List<Long> cancelStartedWaiting(Long afterId, int batchSize);
+}
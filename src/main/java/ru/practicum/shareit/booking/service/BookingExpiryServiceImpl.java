@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExpiryServiceImpl implements BookingExpiryService {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    /**
+     * Строки пачки блокируются до UPDATE, поэтому параллельное подтверждение либо успевает раньше
+     * и бронирование не попадает в пачку, либо ждёт фиксации и уже не находит статус WAITING.
+     * Транзакция охватывает одну пачку, чтобы не держать блокировки на таблице долго.
+     */
+    @Override
+    @Transactional
+    public List<Long> cancelStartedWaiting(Long afterId, int batchSize) {
+        List<Booking> bookings = bookingRepository.findStartedWaitingForUpdate(LocalDateTime.now(), afterId,
+                PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        bookings.forEach(booking -> bookingIntervalIndex.release(booking.getItem().getId(), booking.getId()));
+        bookingRepository.cancelWaiting(ids);
+        log.info("Отменено {} бронирований, не подтверждённых до начала", ids.size());
+        return ids;
+    }
+}
@@ -1,13 +1,17 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingListDto;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDto create(Long userId, BookingCreateDto bookingCreateDto);
 
+    List<BookingBatchResultDto> createAll(Long userId, List<BookingCreateDto> bookingCreateDtos);
+
     BookingDto update(Long bookingId, Long userId, Boolean approved);
 
     void deleteBookingById(Long id);
@@ -17,4 +21,12 @@ public interface BookingService {
     List<BookingDto> getUserBookings(Long userId, String state, Integer from, Integer size);
 
     List<BookingDto> getOwnerBookings(Long userId, String state, Integer from, Integer size);
+
+    long countUserBookings(Long userId, String state);
+
+    long countOwnerBookings(Long userId, String state);
+
+    BookingListDto getUserBookingsByCursor(Long userId, String state, String cursor, Integer size);
+
+    BookingListDto getOwnerBookingsByCursor(Long userId, String state, String cursor, Integer size);
 }
@@ -2,27 +2,46 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingListDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.booking.repositories.BookingSpecifications;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.utility.Utility;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.dto.BookingMapperDto.*;
 
@@ -31,9 +50,14 @@ import static ru.practicum.shareit.booking.dto.BookingMapperDto.*;
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    static final int MAX_BATCH_SIZE = 500;
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointersService pointersService;
+    private final Validator validator;
 
     @Override
     public BookingDto getBookingByIdAndBooker(Long userId, Long bookingId) {
@@ -41,8 +65,7 @@ public class BookingServiceImpl implements BookingService {
 
         Booking booking = bookingRepository.getBookingFull(bookingId)
                 .orElseThrow(() -> new EntityNotFoundException("Booking не существует"));
-        Item item = itemRepository.findById(booking.getItem().getId())
-                .orElseThrow(() -> new EntityNotFoundException("Item не существует"));
+        Item item = booking.getItem();
 
         if (!(userId.equals(item.getOwner().getId())) && !(userId.equals(booking.getBooker().getId()))) {
             throw new EntityNotFoundException(
@@ -58,31 +81,145 @@ public class BookingServiceImpl implements BookingService {
                 .findByIdFull(bookingCreateDto.getItemId())
                 .orElseThrow(() -> new EntityNotFoundException("Item не существует"));
 
-        User booker = userRepository
-                .findById(userId)
+        User booker = userCache
+                .find(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User не найден"));
 
+        Booking booking = newBooking(userId, booker, item, bookingCreateDto);
+        BookingInterval interval = bookingIntervalIndex.reserve(item.getId(), booking.getStart(), booking.getEnd());
+        Booking saved = saveAndFlush(booking);
+        interval.setBookingId(saved.getId());
+        return toBookingDto(saved);
+    }
+
+    /**
+     * Создаёт пакет бронирований одной транзакцией: вещи читаются одним запросом, ошибки проверок
+     * возвращаются по каждой записи отдельно, прошедшие проверки записи вставляются JDBC-пакетом.
+     * Запись в БД — всё или ничего: если при вставке сработало ограничение БД (пересечение с бронированием,
+     * созданным другим экземпляром приложения), откатывается весь пакет и возвращается 409.
+     */
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createAll(Long userId, List<BookingCreateDto> bookingCreateDtos) {
+        if (bookingCreateDtos.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Пакет не может содержать больше " + MAX_BATCH_SIZE + " бронирований");
+        }
+        User booker = userCache
+                .find(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User не найден"));
+
+        Set<Long> itemIds = bookingCreateDtos.stream()
+                .map(BookingCreateDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemRepository.findAllFullByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingCreateDtos.size()];
+        List<Booking> bookings = new ArrayList<>();
+        List<BookingInterval> intervals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < bookingCreateDtos.size(); i++) {
+            try {
+                Booking booking = batchEntry(userId, booker, items, bookingCreateDtos.get(i));
+                intervals.add(bookingIntervalIndex.reserve(booking.getItem().getId(), booking.getStart(),
+                        booking.getEnd()));
+                bookings.add(booking);
+                indexes.add(i);
+            } catch (EntityNotFoundException e) {
+                results[i] = failed(i, HttpStatus.NOT_FOUND, e.getMessage());
+            } catch (ResponseStatusException e) {
+                results[i] = failed(i, e.getStatus(), e.getReason());
+            }
+        }
+
+        List<Booking> saved = saveAllAndFlush(bookings);
+        for (int i = 0; i < saved.size(); i++) {
+            intervals.get(i).setBookingId(saved.get(i).getId());
+            results[indexes.get(i)] = BookingBatchResultDto.builder()
+                    .index(indexes.get(i))
+                    .status(HttpStatus.CREATED.value())
+                    .booking(toBookingDto(saved.get(i)))
+                    .build();
+        }
+        log.info("Пакет бронирований user {}: создано {} из {}", userId, saved.size(), bookingCreateDtos.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Bean Validation не применяется к элементам списка в теле запроса, поэтому ограничения BookingCreateDto
+     * проверяются здесь тем же валидатором, что и у одиночного POST /bookings.
+     */
+    private Booking batchEntry(Long userId, User booker, Map<Long, Item> items, BookingCreateDto bookingCreateDto) {
+        if (bookingCreateDto == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Пустая запись пакета");
+        }
+        Set<ConstraintViolation<BookingCreateDto>> violations = validator.validate(bookingCreateDto);
+        if (!violations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        Item item = items.get(bookingCreateDto.getItemId());
+        if (item == null) {
+            throw new EntityNotFoundException("Item не существует");
+        }
+        return newBooking(userId, booker, item, bookingCreateDto);
+    }
+
+    /**
+     * Общие для одиночного и пакетного создания проверки вещи, прав и времени бронирования.
+     */
+    private Booking newBooking(Long userId, User booker, Item item, BookingCreateDto bookingCreateDto) {
         if (Boolean.FALSE.equals(item.isAvailable())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item недоступен");
         }
-
         if (item.getOwner().getId().equals(userId)) {
             throw new EntityNotFoundException("Недостаточно прав для создания Booking");
         }
-
         if (checkTimestampBooking(bookingCreateDto.getStart(), bookingCreateDto.getEnd())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректное время бронирования");
         }
-
-        Booking booking = fromBookingDto(BookingDto.builder()
+        return Booking.builder()
                 .item(item)
                 .booker(booker)
                 .end(bookingCreateDto.getEnd())
                 .start(bookingCreateDto.getStart())
                 .status(BookingStatus.WAITING)
-                .build());
+                .build();
+    }
 
-        return toBookingDto(bookingRepository.save(booking));
+    private static BookingBatchResultDto failed(int index, HttpStatus status, String error) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+
+    private List<Booking> saveAllAndFlush(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        try {
+            List<Booking> saved = bookingRepository.saveAll(bookings);
+            bookingRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Пакет бронирований пересекается с существующими: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Вещь уже забронирована на это время");
+        }
+    }
+
+    private Booking saveAndFlush(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Booking вещи {} пересекается с существующим: {}", booking.getItem().getId(), e.getMessage());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Вещь уже забронирована на это время");
+        }
     }
 
     private boolean checkTimestampBooking(LocalDateTime start, LocalDateTime end) {
@@ -95,66 +232,56 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     public BookingDto update(Long bookingId, Long userId, Boolean approved) {
         checkUserExist(userId);
-        Booking booking = bookingRepository.getBookingFull(bookingId)
+        BookingView booking = bookingRepository.findTop(BookingSpecifications.byId(bookingId), 1).stream()
+                .findFirst()
                 .orElseThrow(() -> new EntityNotFoundException("Booking не найден"));
 
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+        if (!BookingStatus.WAITING.equals(booking.getStatus())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booking не находится в статусе WAITING");
         }
 
-        if (booking.getBooker().getId().equals(userId)) {
+        if (userId.equals(booking.getBookerId())) {
             throw new EntityNotFoundException("данный User не может редактировать Booking");
         }
 
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
+        if (!userId.equals(booking.getOwnerId())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Данный User не может редактировать Booking");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (approved) {
+            bookingIntervalIndex.checkApprove(booking.getItemId(), bookingId, booking.getStart(), booking.getEnd());
+        }
 
-        return toBookingDto(bookingRepository.save(booking));
+        if (bookingRepository.updateStatusIfWaiting(bookingId, userId, status) == 0) {
+            log.info("Booking {} уже переведён из статуса WAITING параллельным запросом", bookingId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booking не находится в статусе WAITING");
+        }
+
+        if (approved) {
+            pointersService.refresh(booking.getItemId());
+        } else {
+            bookingIntervalIndex.release(booking.getItemId(), bookingId);
+        }
+        return toBookingDto(booking.withStatus(status));
     }
 
     @Override
     @Transactional
     public void deleteBookingById(Long id) {
-        if (!bookingRepository.existsById(id)) {
-        throw new EntityNotFoundException("Booking не существует.");
+        Booking booking = bookingRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Booking не существует."));
+        bookingRepository.deleteById(id);
+        bookingIntervalIndex.release(booking);
+        if (BookingStatus.APPROVED.equals(booking.getStatus())) {
+            pointersService.refresh(booking.getItem().getId());
         }
-            bookingRepository.deleteById(id);
     }
 
     @Override
     public List<BookingDto> getUserBookings(Long userId, String state, Integer from, Integer size) {
         checkUserExist(userId);
-        checkValidState(state);
-        BookingState bookingState = BookingState.valueOf(state.toUpperCase());
-        LocalDateTime currentTime = LocalDateTime.now();
-        Page<Booking> bookings;
-        Pageable pageable = Utility.paginationWithoutSort(from, size);
-
-        switch (bookingState) {
-            case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartLessThanAndEndGreaterThanOrderByStartDesc(userId,
-                        currentTime, currentTime, pageable);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndLessThanOrderByStartDesc(userId, currentTime, pageable);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartGreaterThanOrderByStartDesc(userId, currentTime, pageable);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId, pageable);
-                break;
-        }
-        return toListBookingDto(bookings.toList());
+        return findBookings(BookingRole.BOOKER, userId, state, from, size);
     }
 
     private static void checkValidState(String state) {
@@ -166,7 +293,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void checkUserExist(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             throw new EntityNotFoundException("User не найден");
         }
     }
@@ -174,31 +301,63 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getOwnerBookings(Long userId, String state, Integer from, Integer size) {
         checkUserExist(userId);
+        return findBookings(BookingRole.OWNER, userId, state, from, size);
+    }
+
+    private List<BookingDto> findBookings(BookingRole role, Long userId, String state, Integer from, Integer size) {
+        Pageable pageable = Utility.paginationWithoutSort(from, size);
+        Slice<BookingView> bookings = bookingRepository.findSlice(specification(role, userId, state), pageable);
+        return toListBookingDto(bookings.getContent());
+    }
+
+    @Override
+    public long countUserBookings(Long userId, String state) {
+        checkUserExist(userId);
+        return bookingRepository.count(specification(BookingRole.BOOKER, userId, state));
+    }
+
+    @Override
+    public long countOwnerBookings(Long userId, String state) {
+        checkUserExist(userId);
+        return bookingRepository.count(specification(BookingRole.OWNER, userId, state));
+    }
+
+    private static Specification<Booking> specification(BookingRole role, Long userId, String state) {
         checkValidState(state);
         BookingState bookingState = BookingState.valueOf(state.toUpperCase());
-        Page<Booking> bookings;
-        LocalDateTime currentTime = LocalDateTime.now();
-        Pageable pageable = Utility.paginationWithoutSort(from, size);
-        switch (bookingState) {
-            case CURRENT:
-                bookings = bookingRepository.findByItemOwnerAndStartLessThanAndEndGreaterThanOrderByStartDesc(userId, currentTime, currentTime, pageable);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItemOwnerAndEndLessThanOrderByStartDesc(userId, currentTime, pageable);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItemOwnerAndStartGreaterThanOrderByStartDesc(userId, currentTime, pageable);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItemOwnerAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItemOwnerAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                bookings = bookingRepository.findByItemOwnerOrderByStartDesc(userId, pageable);
-                break;
-        }
-        return toListBookingDto(bookings.toList());
+        return BookingSpecifications.byRoleAndState(role, userId, bookingState, LocalDateTime.now());
+    }
+
+    @Override
+    public BookingListDto getUserBookingsByCursor(Long userId, String state, String cursor, Integer size) {
+        checkUserExist(userId);
+        return findBookingsByCursor(BookingRole.BOOKER, userId, state, cursor, size);
+    }
+
+    @Override
+    public BookingListDto getOwnerBookingsByCursor(Long userId, String state, String cursor, Integer size) {
+        checkUserExist(userId);
+        return findBookingsByCursor(BookingRole.OWNER, userId, state, cursor, size);
+    }
+
+    private BookingListDto findBookingsByCursor(BookingRole role, Long userId, String state, String cursor,
+                                                Integer size) {
+        Specification<Booking> specification = specification(role, userId, state);
+        int limit = Utility.pageSize(size);
+        if (cursor != null && !cursor.isBlank()) {
+            BookingCursor position = BookingCursor.decode(cursor);
+            specification = specification.and(BookingSpecifications.after(position.getStart(), position.getId()));
+        }
+
+        List<BookingView> bookings = bookingRepository.findTop(specification, limit + 1);
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = BookingCursor.of(bookings.get(limit - 1)).encode();
+        }
+        return BookingListDto.builder()
+                .bookings(toListBookingDto(bookings))
+                .nextCursor(nextCursor)
+                .build();
     }
 }
\ No newline at end of file
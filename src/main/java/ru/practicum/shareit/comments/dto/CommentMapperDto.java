@@ -17,7 +17,16 @@ public class CommentMapperDto {
                 .build();
     }
 
-    public static List<CommentResponseDto> toListComment(List<Comment> comments) {
+    public static CommentResponseDto toCommentResponseDto(CommentView comment) {
+        return CommentResponseDto.builder()
+                .id(comment.getId())
+                .created(comment.getCreated())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .build();
+    }
+
+    public static List<CommentResponseDto> toListComment(List<CommentView> comments) {
         return comments.stream().map(CommentMapperDto::toCommentResponseDto).collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.comments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция отзыва с именем автора для списков только на чтение.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentView {
+    private final Long id;
+    private final Long itemId;
+    private final String text;
+    private final String authorName;
+    private final LocalDateTime created;
+}
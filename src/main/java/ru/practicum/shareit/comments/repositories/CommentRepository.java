@@ -1,13 +1,24 @@
 package ru.practicum.shareit.comments.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.comments.dto.CommentView;
 import ru.practicum.shareit.comments.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    String COMMENT_VIEW = "SELECT new ru.practicum.shareit.comments.dto.CommentView(com.id, com.item.id, com.text, " +
+            "a.name, com.created) " +
+            "FROM Comment com " +
+            "JOIN com.author a ";
 
-    List<Comment> getCommentsByItem_idOrderByCreatedDesc(Long itemId);
-}
\ No newline at end of file
+    @Query(COMMENT_VIEW + "WHERE com.item.id = :itemId ORDER BY com.created DESC")
+    List<CommentView> findViewsByItemId(Long itemId);
+
+    @Query(COMMENT_VIEW + "WHERE com.item.id IN :itemIds ORDER BY com.created DESC")
+    List<CommentView> findViewsByItemIdIn(Collection<Long> itemIds);
+}
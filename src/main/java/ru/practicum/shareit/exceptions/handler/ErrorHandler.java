@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exceptions.handler;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -26,6 +27,11 @@ public class ErrorHandler {
         return new ResponseEntity<>(new ErrorResponse(e.getReason()), e.getStatus());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> optimisticLockExcHandler(final OptimisticLockingFailureException e) {
+        return new ResponseEntity<>(new ErrorResponse("Данные изменены параллельным запросом"), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponse> notFoundExcHandler(final EntityNotFoundException e) {
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
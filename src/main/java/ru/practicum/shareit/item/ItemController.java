@@ -1,18 +1,29 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comments.dto.CommentRequestDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemListDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,8 +34,12 @@ public class ItemController {
 
     private final ItemService itemService;
 
+    private final ObjectMapper objectMapper;
+
     private final String xSharer = "X-Sharer-User-Id";
 
+    private final String nextCursorHeader = "X-Next-Cursor";
+
     @GetMapping
     public ResponseEntity<List<ItemResponseDto>> getAllItems(@RequestHeader(xSharer) Long userId) {
         log.info("Получен GET запрос на получении всех Items");
@@ -39,6 +54,16 @@ public class ItemController {
         return new ResponseEntity<>(itemService.findById(itemId, userId), HttpStatus.OK);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> readItemAvailability(
+            @RequestHeader(xSharer) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Получен GET запрос на доступность Item {} с {} по {}", itemId, from, to);
+        return new ResponseEntity<>(itemService.getAvailability(userId, itemId, from, to), HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<ItemDto> createItem(@RequestHeader(xSharer) Long userId,
                                               @RequestBody @Valid ItemDto itemDto,
@@ -67,9 +92,54 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> searchItemsByText(@RequestParam String text) {
+    public ResponseEntity<List<ItemDto>> searchItemsByText(@RequestParam String text,
+                                                           @RequestParam(name = "from", required = false) Integer from,
+                                                           @RequestParam(name = "size", required = false) Integer size,
+                                                           @RequestParam(name = "cursor", required = false)
+                                                           String cursor,
+                                                           @RequestParam(name = "start", required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime start,
+                                                           @RequestParam(name = "end", required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime end) {
         log.info("Получен GET запрос на создание поиск ITEM по тексту {}", text);
-        return new ResponseEntity<>(itemService.findByText(text), HttpStatus.OK);
+        if (start != null || end != null) {
+            return new ResponseEntity<>(itemService.findByText(text, start, end, from, size), HttpStatus.OK);
+        }
+        if (cursor == null) {
+            return new ResponseEntity<>(itemService.findByText(text, from, size), HttpStatus.OK);
+        }
+        ItemListDto items = itemService.findByTextByCursor(text, cursor, size);
+        HttpHeaders headers = new HttpHeaders();
+        if (items.getNextCursor() != null) {
+            headers.add(nextCursorHeader, items.getNextCursor());
+        }
+        return new ResponseEntity<>(items.getItems(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItemsByText(@RequestParam String text) {
+        log.info("Получен GET запрос на потоковый поиск ITEM по тексту {}", text);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                itemService.streamByText(text, items -> writeChunk(generator, items));
+                generator.writeEndArray();
+            }
+        };
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    private static void writeChunk(JsonGenerator generator, List<ItemDto> items) {
+        try {
+            for (ItemDto item : items) {
+                generator.writeObject(item);
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PostMapping("/{itemId}/comment")
@@ -1,10 +1,9 @@
 package ru.practicum.shareit.item.dto;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 import ru.practicum.shareit.booking.dto.BookingDtoUser;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -23,8 +22,7 @@ public class ItemDto {
     private String description;
     @NotNull
     private Boolean available;
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-    private User owner;
+    private UserDto owner;
     private Long requestId;
     private BookingDtoUser lastBooking;
     private BookingDtoUser nextBooking;
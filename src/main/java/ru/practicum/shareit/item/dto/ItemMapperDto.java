@@ -5,9 +5,10 @@ import ru.practicum.shareit.booking.dto.BookingMapperDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapperDto;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @UtilityClass
 public final class ItemMapperDto {
@@ -17,7 +18,22 @@ public final class ItemMapperDto {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.isAvailable())
-                .owner(item.getOwner())
+                .owner(item.getOwner() == null ? null : UserMapperDto.toUserDto(item.getOwner()))
+                .requestId(item.getRequestId())
+                .build();
+    }
+
+    public static ItemDto toItemDto(ItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.isAvailable())
+                .owner(UserDto.builder()
+                        .id(item.getOwnerId())
+                        .name(item.getOwnerName())
+                        .email(item.getOwnerEmail())
+                        .build())
                 .requestId(item.getRequestId())
                 .build();
     }
@@ -28,18 +44,11 @@ public final class ItemMapperDto {
                 .name(itemDto.getName())
                 .description(itemDto.getDescription())
                 .available(itemDto.getAvailable())
-                .owner(itemDto.getOwner())
                 .requestId(itemDto.getRequestId())
                 .build();
     }
 
-    public static List<ItemDto> toListItemDto(List<Item> items) {
-        return items.stream()
-                .map(ItemMapperDto::toItemDto)
-                .collect(Collectors.toList());
-    }
-
-    public static ItemResponseDto toItemResponseDto(Item item,
+    public static ItemResponseDto toItemResponseDto(ItemView item,
                                                     Booking lastBooking,
                                                     Booking nextBooking,
                                                     List<CommentResponseDto> comments) {
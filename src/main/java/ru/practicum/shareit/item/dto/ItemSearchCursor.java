@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в результатах поиска, упорядоченных по релевантности. Клиенту отдаётся в виде непрозрачного токена.
+ */
+@UtilityClass
+public class ItemSearchCursor {
+    private static final String SEPARATOR = "|";
+    private static final String TRUE = String.valueOf(true);
+    private static final String FALSE = String.valueOf(false);
+
+    public static String encode(ItemSearchHit hit) {
+        String raw = hit.isInName() + SEPARATOR + hit.getPosition() + SEPARATOR + hit.getItemId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ItemSearchHit decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+            if (parts.length != 3 || !(TRUE.equals(parts[0]) || FALSE.equals(parts[0]))) {
+                throw new IllegalArgumentException(token);
+            }
+            return new ItemSearchHit(Long.parseLong(parts[2]), TRUE.equals(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Проекция вещи с владельцем для списков только на чтение.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemView {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final boolean available;
+    private final Long requestId;
+    private final Long ownerId;
+    private final String ownerName;
+    private final String ownerEmail;
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Материализованные последнее и следующее подтверждённые бронирования вещи.
+ * rollAt — момент окончания следующего бронирования, после которого указатели нужно сдвинуть.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "item_booking_pointers")
+public class ItemBookingPointers {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+
+    @Column(name = "roll_at")
+    private LocalDateTime rollAt;
+
+    public boolean isStale(LocalDateTime now) {
+        return rollAt != null && !rollAt.isAfter(now);
+    }
+}
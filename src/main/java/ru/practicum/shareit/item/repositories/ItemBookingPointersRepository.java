@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemBookingPointersRepository extends JpaRepository<ItemBookingPointers, Long> {
+
+    @Query("SELECT p FROM ItemBookingPointers p " +
+            "LEFT JOIN FETCH p.lastBooking lb " +
+            "LEFT JOIN FETCH lb.booker " +
+            "LEFT JOIN FETCH p.nextBooking nb " +
+            "LEFT JOIN FETCH nb.booker " +
+            "WHERE p.itemId IN :itemIds")
+    List<ItemBookingPointers> findAllFullByItemIdIn(Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ItemBookingPointers p WHERE p.itemId = :itemId")
+    Optional<ItemBookingPointers> findForUpdate(Long itemId);
+
+    @Query("SELECT p.itemId FROM ItemBookingPointers p WHERE p.rollAt <= :now ORDER BY p.rollAt")
+    List<Long> findItemIdsToRoll(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Помечает просроченными указатели, ссылающиеся на бронирования пользователя: при его удалении бронирования
+     * уходят каскадом, ссылки обнуляются через ON DELETE SET NULL, а rollAt остался бы прежним.
+     */
+    @Modifying
+    @Query("UPDATE ItemBookingPointers p SET p.rollAt = :now " +
+            "WHERE p.lastBooking.id IN (SELECT bok.id FROM Booking bok WHERE bok.booker.id = :bookerId) " +
+            "OR p.nextBooking.id IN (SELECT bok.id FROM Booking bok WHERE bok.booker.id = :bookerId)")
+    int markStaleByBooker(Long bookerId, LocalDateTime now);
+}
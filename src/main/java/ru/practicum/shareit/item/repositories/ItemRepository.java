@@ -3,27 +3,44 @@ package ru.practicum.shareit.item.repositories;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String ITEM_VIEW = "SELECT new ru.practicum.shareit.item.dto.ItemView(it.id, it.name, it.description, " +
+            "it.available, it.requestId, o.id, o.name, o.email) " +
+            "FROM Item it " +
+            "JOIN it.owner o ";
+
+    List<Item> findAllByAvailableTrue();
 
     @Query("SELECT it FROM Item it " +
-            "JOIN FETCH it.owner  " +
-            "WHERE it.available = true" +
-            " AND (LOWER(it.name) LIKE LOWER(CONCAT('%', ?1, '%'))" +
-            " OR LOWER(it.description) LIKE LOWER(CONCAT('%', ?1, '%')))")
-    List<Item> search(String text);
+            "JOIN FETCH it.owner " +
+            "WHERE it.id IN :itemIds")
+    List<Item> findAllFullByIdIn(Collection<Long> itemIds);
+
+    @Query(ITEM_VIEW + "WHERE it.id IN :itemIds")
+    List<ItemView> findViewsByIdIn(Collection<Long> itemIds);
 
     @Query("SELECT it FROM Item it " +
             "JOIN FETCH it.owner " +
             "WHERE it.id = :itemId")
     Optional<Item> findByIdFull(Long itemId);
 
-    List<Item> findAllByRequestId(Long requestId);
+    @Query(ITEM_VIEW + "WHERE it.id = :itemId")
+    Optional<ItemView> findViewById(Long itemId);
+
+    @Query(ITEM_VIEW + "WHERE it.requestId = :requestId")
+    List<ItemView> findViewsByRequestId(Long requestId);
+
+    @Query(ITEM_VIEW + "WHERE it.requestId IN :requestIds")
+    List<ItemView> findViewsByRequestIdIn(Collection<Long> requestIds);
 
-    List<Item> findAllByOwnerIdOrderByIdAsc(Long id);
-}
\ No newline at end of file
+    @Query(ITEM_VIEW + "WHERE o.id = :ownerId ORDER BY it.id")
+    List<ItemView> findViewsByOwnerId(Long ownerId);
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utility.LruCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * LRU-кэш результатов поиска (нормализованный запрос → попадания) с ограничением по размеру и TTL.
+ * При изменении вещи сбрасываются только запросы, которые входят в её старый или новый текст.
+ * Результат, посчитанный до сброса, в кэш не кладётся, чтобы не закэшировать устаревшие данные.
+ */
+@Component
+public class ItemSearchCache {
+    private final Duration ttl;
+    private final Clock clock;
+    private final LruCache<String, List<ItemSearchHit>> entries;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public ItemSearchCache(@Value("${shareit.search.cache.max-size:500}") int maxSize,
+                           @Value("${shareit.search.cache.ttl:PT10M}") Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ItemSearchCache(int maxSize, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LruCache<>(maxSize);
+    }
+
+    public List<ItemSearchHit> get(String query, Supplier<List<ItemSearchHit>> loader) {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            List<ItemSearchHit> cached = entries.get(query, now);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long loadedAt = version.get();
+        List<ItemSearchHit> result = List.copyOf(loader.get());
+        synchronized (entries) {
+            if (version.get() == loadedAt) {
+                entries.put(query, result, now.plus(ttl));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сбрасывает запросы, которые находят вещь по тексту до или после изменения.
+     */
+    public void invalidate(String... texts) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            invalidations.addAndGet(entries.removeIf(query -> {
+                for (String text : texts) {
+                    if (text.contains(query)) {
+                        return true;
+                    }
+                }
+                return false;
+            }));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return entries.getEvictionCount();
+        }
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Нормализованный (в нижнем регистре) текст вещи в поисковом индексе.
+ */
+@Getter
+@RequiredArgsConstructor
+class ItemSearchDocument {
+    private final Long itemId;
+    private final String name;
+    private final String description;
+
+    /**
+     * Возвращает попадание, если запрос входит в название или описание, иначе null.
+     */
+    ItemSearchHit hit(String query) {
+        int inName = name.indexOf(query);
+        if (inName >= 0) {
+            return new ItemSearchHit(itemId, true, inName);
+        }
+        int inDescription = description.indexOf(query);
+        return inDescription >= 0 ? new ItemSearchHit(itemId, false, inDescription) : null;
+    }
+
+    Set<String> grams() {
+        Set<String> grams = ItemSearchIndex.grams(name);
+        grams.addAll(ItemSearchIndex.grams(description));
+        return grams;
+    }
+}
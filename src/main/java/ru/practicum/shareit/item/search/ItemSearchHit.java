@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Comparator;
+
+/**
+ * Найденная вещь с ключом релевантности: совпадение в названии, позиция вхождения, id.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ItemSearchHit implements Comparable<ItemSearchHit> {
+    private static final Comparator<ItemSearchHit> ORDER = Comparator
+            .comparing((ItemSearchHit hit) -> !hit.isInName())
+            .thenComparingInt(ItemSearchHit::getPosition)
+            .thenComparing(ItemSearchHit::getItemId);
+
+    private final Long itemId;
+    private final boolean inName;
+    private final int position;
+
+    @Override
+    public int compareTo(ItemSearchHit other) {
+        return ORDER.compare(this, other);
+    }
+}
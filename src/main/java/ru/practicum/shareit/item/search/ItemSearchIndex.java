@@ -0,0 +1,172 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.utility.Utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Триграммный инвертированный индекс по названию и описанию доступных вещей.
+ * Кандидаты берутся пересечением списков триграмм запроса и проверяются подстрокой, поэтому
+ * результат совпадает с прежним LIKE '%text%'. Совпадения в названии ранжируются выше совпадений
+ * в описании, более ранние вхождения — выше поздних.
+ * Индекс строится из БД при первом поиске и обновляется после фиксации транзакций, меняющих вещи.
+ * Результаты запросов кэшируются в {@link ItemSearchCache}, изменения документов точечно его сбрасывают.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchCache searchCache;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ItemSearchDocument> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Возвращает подходящие вещи в порядке релевантности.
+     */
+    public List<ItemSearchHit> search(String text) {
+        String query = normalize(text);
+        ensureLoaded();
+        return searchCache.get(query, () -> find(query));
+    }
+
+    private List<ItemSearchHit> find(String query) {
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM ? documents.keySet() : candidates(query);
+            return candidates.stream()
+                    .map(itemId -> documents.get(itemId).hit(query))
+                    .filter(Objects::nonNull)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Переиндексирует вещь после фиксации текущей транзакции; недоступные вещи из индекса убираются.
+     */
+    public void index(Item item) {
+        ItemSearchDocument document = new ItemSearchDocument(item.getId(), normalize(item.getName()),
+                normalize(item.getDescription()));
+        boolean available = item.isAvailable();
+        Utility.afterCommit(() -> {
+            if (available) {
+                write(() -> put(document));
+            } else {
+                write(() -> delete(document.getItemId()));
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        Utility.afterCommit(() -> write(() -> delete(itemId)));
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                List<Item> items = itemRepository.findAllByAvailableTrue();
+                items.forEach(item -> put(new ItemSearchDocument(item.getId(), normalize(item.getName()),
+                        normalize(item.getDescription()))));
+                loaded = true;
+                log.info("Поисковый индекс вещей построен, документов: {}", items.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Изменения до построения индекса пропускаются: построение читает БД под той же блокировкой
+     * и увидит уже зафиксированные данные.
+     */
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void put(ItemSearchDocument document) {
+        delete(document.getItemId());
+        searchCache.invalidate(document.getName(), document.getDescription());
+        documents.put(document.getItemId(), document);
+        document.grams().forEach(gram -> postings.computeIfAbsent(gram, key -> new HashSet<>())
+                .add(document.getItemId()));
+    }
+
+    private void delete(Long itemId) {
+        ItemSearchDocument previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        searchCache.invalidate(previous.getName(), previous.getDescription());
+        for (String gram : previous.grams()) {
+            Set<Long> ids = postings.get(gram);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сдвигает указатели бронирований, когда следующее бронирование вещи уходит в прошлое.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointersRoller {
+    private final ItemBookingPointersService pointersService;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-pointers.roll-delay-ms:60000}")
+    public void roll() {
+        int rolled;
+        do {
+            rolled = pointersService.rollExpired();
+        } while (rolled == ItemBookingPointersServiceImpl.ROLL_BATCH_SIZE);
+    }
+}
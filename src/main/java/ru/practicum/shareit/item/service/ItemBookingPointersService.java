@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.ItemBookingPointers;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingPointersService {
+    void init(Long itemId);
+
+    ItemBookingPointers get(Long itemId);
+
+    Map<Long, ItemBookingPointers> getAll(Collection<Long> itemIds);
+
+    void refresh(Long itemId);
+
+    void invalidateBooker(Long bookerId);
+
+    int rollExpired();
+}
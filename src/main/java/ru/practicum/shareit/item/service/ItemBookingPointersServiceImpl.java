@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
+import ru.practicum.shareit.item.repositories.ItemBookingPointersRepository;
+import ru.practicum.shareit.utility.Utility;
+
+import javax.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ItemBookingPointersServiceImpl implements ItemBookingPointersService {
+    static final int ROLL_BATCH_SIZE = 100;
+
+    private final ItemBookingPointersRepository pointersRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    @Transactional
+    public void init(Long itemId) {
+        pointersRepository.save(ItemBookingPointers.builder().itemId(itemId).build());
+    }
+
+    @Override
+    public ItemBookingPointers get(Long itemId) {
+        return getAll(List.of(itemId)).get(itemId);
+    }
+
+    /**
+     * Читает указатели одним запросом; отсутствующие или просроченные до прохода планировщика
+     * вычисляются по бронированиям ещё одним запросом на все такие вещи. Отсутствующие записи
+     * (вещи, созданные до появления таблицы) сохраняются после фиксации транзакции, просроченные
+     * сохранит планировщик.
+     */
+    @Override
+    public Map<Long, ItemBookingPointers> getAll(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingPointers> pointers = new HashMap<>();
+        for (ItemBookingPointers itemPointers : pointersRepository.findAllFullByItemIdIn(itemIds)) {
+            pointers.put(itemPointers.getItemId(), itemPointers);
+        }
+        List<Long> missing = new ArrayList<>();
+        List<Long> absent = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemBookingPointers itemPointers = pointers.get(itemId);
+            if (itemPointers == null) {
+                absent.add(itemId);
+            }
+            if (itemPointers == null || itemPointers.isStale(now)) {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, ItemBookingPointers> computed = compute(missing, now);
+            pointers.putAll(computed);
+            List<ItemBookingPointers> created = new ArrayList<>();
+            absent.forEach(itemId -> created.add(computed.get(itemId)));
+            writeThrough(created);
+        }
+        return pointers;
+    }
+
+    /**
+     * Сохраняет вычисленные указатели в отдельной транзакции после фиксации текущей: чтение идёт
+     * в read-only транзакции. Если запись уже создал параллельный запрос, вставка просто откатывается.
+     */
+    private void writeThrough(List<ItemBookingPointers> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        Utility.afterCommit(() -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            try {
+                transaction.executeWithoutResult(status -> created.forEach(entityManager::persist));
+            } catch (DataAccessException | TransactionException e) {
+                log.info("Указатели бронирований {} вещей не сохранены: {}", created.size(), e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void refresh(Long itemId) {
+        ItemBookingPointers pointers = pointersRepository.findForUpdate(itemId)
+                .orElseGet(() -> ItemBookingPointers.builder().itemId(itemId).build());
+        ItemBookingPointers computed = compute(List.of(itemId), LocalDateTime.now()).get(itemId);
+        pointers.setLastBooking(computed.getLastBooking());
+        pointers.setNextBooking(computed.getNextBooking());
+        pointers.setRollAt(computed.getRollAt());
+        pointersRepository.save(pointers);
+    }
+
+    /**
+     * Вызывается до удаления пользователя, пока его бронирования ещё в БД: задетые указатели пересчитает
+     * getAll или ближайший проход планировщика.
+     */
+    @Override
+    @Transactional
+    public void invalidateBooker(Long bookerId) {
+        int marked = pointersRepository.markStaleByBooker(bookerId, LocalDateTime.now());
+        if (marked > 0) {
+            log.info("Указатели бронирований {} вещей помечены к пересчёту", marked);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int rollExpired() {
+        List<Long> itemIds = pointersRepository.findItemIdsToRoll(LocalDateTime.now(),
+                PageRequest.of(0, ROLL_BATCH_SIZE));
+        itemIds.forEach(this::refresh);
+        if (!itemIds.isEmpty()) {
+            log.info("Сдвинуты указатели бронирований для {} вещей", itemIds.size());
+        }
+        return itemIds.size();
+    }
+
+    /**
+     * Вычисляет указатели для всех вещей одним запросом; при одинаковом end берётся бронирование с меньшим id.
+     */
+    private Map<Long, ItemBookingPointers> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingPointers> computed = new HashMap<>();
+        for (Long itemId : itemIds) {
+            computed.put(itemId, ItemBookingPointers.builder().itemId(itemId).build());
+        }
+        for (Booking booking : bookingRepository.findLastAndNextApproved(itemIds, now)) {
+            ItemBookingPointers pointers = computed.get(booking.getItem().getId());
+            if (booking.getEnd().isBefore(now)) {
+                if (pointers.getLastBooking() == null) {
+                    pointers.setLastBooking(booking);
+                }
+            } else if (pointers.getNextBooking() == null) {
+                pointers.setNextBooking(booking);
+                pointers.setRollAt(booking.getEnd());
+            }
+        }
+        return computed;
+    }
+}
@@ -2,10 +2,14 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comments.dto.CommentRequestDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemListDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto save(Long userId, ItemDto itemDto);
@@ -18,7 +22,15 @@ public interface ItemService {
 
     List<ItemResponseDto> findAllItemByUserId(Long userId);
 
-    List<ItemDto> findByText(String text);
+    List<ItemDto> findByText(String text, Integer from, Integer size);
+
+    List<ItemDto> findByText(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size);
+
+    ItemListDto findByTextByCursor(String text, String cursor, Integer size);
+
+    void streamByText(String text, Consumer<List<ItemDto>> consumer);
+
+    ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentResponseDto addComment(Long userId, Long itemId, CommentRequestDto commentRequestDto);
 }
\ No newline at end of file
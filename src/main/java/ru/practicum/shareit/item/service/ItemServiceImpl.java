@@ -2,33 +2,54 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.comments.dto.CommentMapperDto;
 import ru.practicum.shareit.comments.dto.CommentRequestDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.comments.dto.CommentView;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.comments.repositories.CommentRepository;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemListDto;
+import ru.practicum.shareit.item.dto.ItemMapperDto;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
 import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.utility.Utility;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-import static org.springframework.data.domain.Sort.Direction.DESC;
 import static ru.practicum.shareit.booking.dto.BookingMapperDto.bookingItemResponseDto;
 import static ru.practicum.shareit.comments.dto.CommentMapperDto.toListComment;
 import static ru.practicum.shareit.item.dto.ItemMapperDto.*;
@@ -38,10 +59,18 @@ import static ru.practicum.shareit.item.dto.ItemMapperDto.*;
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    static final int STREAM_BATCH_SIZE = 100;
+    static final Duration MAX_AVAILABILITY_PERIOD = Duration.ofDays(366);
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingPointersService pointersService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     @Transactional
@@ -50,13 +79,15 @@ public class ItemServiceImpl implements ItemService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Заголовок айди юзера не найден");
         }
 
-        User user = userRepository.findById(userId)
+        User user = userCache.find(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден"));
 
-        itemDto.setOwner(user);
         Item item = fromItemDto(itemDto);
+        item.setOwner(user);
 
         Item save = itemRepository.save(item);
+        pointersService.init(save.getId());
+        itemSearchIndex.index(save);
 
         return toItemDto(save);
     }
@@ -84,6 +115,7 @@ public class ItemServiceImpl implements ItemService {
             }
 
             Item save = itemRepository.save(itemForUpdate);
+            itemSearchIndex.index(save);
 
             return toItemDto(save);
         }
@@ -93,25 +125,24 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemResponseDto findById(Long itemId, Long userId) {
-        Item item = itemRepository.findByIdFull(itemId).orElseThrow(() -> new EntityNotFoundException("Вещь не найдена"));
-        List<CommentResponseDto> comments = toListComment(commentRepository.getCommentsByItem_idOrderByCreatedDesc(itemId));
+        ItemView item = itemRepository.findViewById(itemId).orElseThrow(() -> new EntityNotFoundException("Вещь не найдена"));
+        List<CommentResponseDto> comments = toListComment(commentRepository.findViewsByItemId(itemId));
         ItemResponseDto itemResponseDto = toItemResponseDto(item, null, null, comments);
 
-        if (!item.getOwner().getId().equals(userId)) {
+        if (!item.getOwnerId().equals(userId)) {
             return itemResponseDto;
         }
 
-        List<Booking> lastBooking = bookingRepository.findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(
-                itemId, LocalDateTime.now(), BookingStatus.APPROVED, Sort.by(DESC, "end"));
-        List<Booking> nextBooking = bookingRepository.findTop1BookingByItemIdAndEndIsAfterAndStatusIs(
-                itemId, LocalDateTime.now(), BookingStatus.APPROVED, Sort.by(Sort.Direction.ASC, "end"));
+        ItemBookingPointers pointers = pointersService.get(itemId);
+        Booking lastBooking = pointers.getLastBooking();
+        Booking nextBooking = pointers.getNextBooking();
 
-        if (lastBooking.isEmpty() && !nextBooking.isEmpty()) {
-            itemResponseDto.setLastBooking(bookingItemResponseDto(nextBooking.get(0)));
+        if (lastBooking == null && nextBooking != null) {
+            itemResponseDto.setLastBooking(bookingItemResponseDto(nextBooking));
             itemResponseDto.setNextBooking(null);
-        } else if (!lastBooking.isEmpty() && !nextBooking.isEmpty()) {
-            itemResponseDto.setLastBooking(bookingItemResponseDto(lastBooking.get(0)));
-            itemResponseDto.setNextBooking(bookingItemResponseDto(nextBooking.get(0)));
+        } else if (lastBooking != null && nextBooking != null) {
+            itemResponseDto.setLastBooking(bookingItemResponseDto(lastBooking));
+            itemResponseDto.setNextBooking(bookingItemResponseDto(nextBooking));
         }
         return itemResponseDto;
     }
@@ -123,37 +154,219 @@ public class ItemServiceImpl implements ItemService {
             throw new EntityNotFoundException("Вещь не найдена");
         }
         itemRepository.deleteById(id);
+        itemSearchIndex.remove(id);
+        bookingIntervalIndex.invalidate(id);
     }
 
     @Override
     public List<ItemResponseDto> findAllItemByUserId(Long userId) {
+        if (!userCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        List<ItemView> items = itemRepository.findViewsByOwnerId(userId);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> itemIds = items.stream().map(ItemView::getId).collect(Collectors.toList());
+        Map<Long, List<CommentResponseDto>> comments = commentRepository.findViewsByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
+                        Collectors.mapping(CommentMapperDto::toCommentResponseDto, Collectors.toList())));
+        Map<Long, ItemBookingPointers> pointers = pointersService.getAll(itemIds);
+
         List<ItemResponseDto> responseDtoList = new ArrayList<>();
-        User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден"));
-        List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(owner.getId());
-        for (Item item : items) {
-            List<CommentResponseDto> comments = CommentMapperDto
-                    .toListComment(commentRepository.getCommentsByItem_idOrderByCreatedDesc(item.getId()));
+        for (ItemView item : items) {
+            ItemBookingPointers itemPointers = pointers.get(item.getId());
             responseDtoList.add(toItemResponseDto(item,
-                    bookingRepository.findFirstByItem_idAndEndBeforeOrderByEndDesc(item.getId(), LocalDateTime.now()),
-                    bookingRepository.findFirstByItem_idAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now()),
-                    comments));
+                    itemPointers.getLastBooking(),
+                    itemPointers.getNextBooking(),
+                    comments.getOrDefault(item.getId(), new ArrayList<>())));
         }
         return responseDtoList;
     }
 
     @Override
-    public List<ItemDto> findByText(String text) {
+    public List<ItemDto> findByText(String text, Integer from, Integer size) {
+        Pageable page = Utility.paginationWithoutSort(from, size);
+        List<ItemSearchHit> hits = search(text);
+        List<ItemDto> items = new ArrayList<>();
+        fillPage(hits, (int) Math.min(page.getOffset(), hits.size()), page.getPageSize(), items);
+        return items;
+    }
+
+    /**
+     * Поиск вещей, свободных в окне [start, end): совпадения в порядке релевантности проверяются пачками
+     * одним запросом к bookings на пачку до заполнения страницы, поэтому пагинация считается уже по свободным
+     * вещам. Неподтверждённые бронирования тоже занимают вещь, так как новое бронирование с ними пересечься не может.
+     */
+    @Override
+    public List<ItemDto> findByText(String text, LocalDateTime start, LocalDateTime end, Integer from,
+                                    Integer size) {
+        if (start == null && end == null) {
+            return findByText(text, from, size);
+        }
+        LocalDateTime windowStart = checkPeriod(start, end);
+        Pageable page = Utility.paginationWithoutSort(from, size);
+
+        List<ItemSearchHit> hits = search(text);
+        List<ItemDto> items = new ArrayList<>();
+        long skip = page.getOffset();
+        for (int position = 0; position < hits.size() && items.size() < page.getPageSize();
+             position += STREAM_BATCH_SIZE) {
+            List<ItemSearchHit> batch = hits.subList(position, Math.min(position + STREAM_BATCH_SIZE, hits.size()));
+            Set<Long> busy = new HashSet<>(bookingRepository.findBusyItemIds(
+                    batch.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList()),
+                    ACTIVE_STATUSES, windowStart, end));
+            List<ItemSearchHit> free = batch.stream()
+                    .filter(hit -> !busy.contains(hit.getItemId()))
+                    .collect(Collectors.toList());
+            // смещение отсчитывается по прочитанным вещам, как в fillPage: недоступные и удалённые его не съедают
+            List<ItemDto> loaded = new ArrayList<>();
+            fillPage(free, 0, (int) Math.min(skip + page.getPageSize() - items.size(), free.size()), loaded);
+            int skipped = (int) Math.min(skip, loaded.size());
+            skip -= skipped;
+            items.addAll(loaded.subList(skipped, loaded.size()));
+        }
+        return items;
+    }
+
+    @Override
+    public ItemListDto findByTextByCursor(String text, String cursor, Integer size) {
+        int limit = Utility.pageSize(size);
+        List<ItemSearchHit> hits = search(text);
+        int start = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int position = Collections.binarySearch(hits, ItemSearchCursor.decode(cursor));
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<ItemDto> items = new ArrayList<>();
+        int end = fillPage(hits, start, limit, items);
+        return ItemListDto.builder()
+                .items(items)
+                .nextCursor(end < hits.size() ? ItemSearchCursor.encode(hits.get(end - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Отдаёт результаты поиска пачками; каждая пачка читается своей короткой транзакцией,
+     * поэтому память на запрос ограничена размером пачки, а не числом совпадений.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamByText(String text, Consumer<List<ItemDto>> consumer) {
+        List<ItemSearchHit> hits = search(text);
+        for (int start = 0; start < hits.size(); start += STREAM_BATCH_SIZE) {
+            consumer.accept(loadItems(hits.subList(start, Math.min(start + STREAM_BATCH_SIZE, hits.size()))));
+        }
+    }
+
+    private List<ItemSearchHit> search(String text) {
         if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return itemSearchIndex.search(text);
+    }
+
+    /**
+     * Набирает в page до limit доступных вещей по попаданиям, начиная с позиции position, и возвращает позицию
+     * после последнего просмотренного попадания. Индекс хранит только доступные вещи, но может отставать от БД,
+     * поэтому отсеянные при чтении попадания добираются следующими, и страница не становится короче size.
+     */
+    private int fillPage(List<ItemSearchHit> hits, int position, int limit, List<ItemDto> page) {
+        while (page.size() < limit && position < hits.size()) {
+            int end = (int) Math.min((long) position + limit - page.size(), hits.size());
+            page.addAll(loadItems(hits.subList(position, end)));
+            position = end;
+        }
+        return position;
+    }
+
+    /**
+     * Читает доступные вещи в порядке попаданий. Вещи, которых уже нет в БД (удалены каскадом вместе с владельцем),
+     * убираются из поискового индекса.
+     */
+    private List<ItemDto> loadItems(List<ItemSearchHit> hits) {
+        if (hits.isEmpty()) {
             return new ArrayList<>();
         }
-        return toListItemDto(itemRepository.search(text));
+        List<Long> itemIds = hits.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList());
+        Map<Long, ItemView> items = itemRepository.findViewsByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemView::getId, item -> item));
+        List<ItemDto> result = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemView item = items.get(itemId);
+            if (item == null) {
+                itemSearchIndex.remove(itemId);
+            } else if (item.isAvailable()) {
+                result.add(ItemMapperDto.toItemDto(item));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Свободные и занятые промежутки вещи отвечаются из индекса активных бронирований без запроса к bookings.
+     */
+    @Override
+    public ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!userCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        if (itemRepository.findById(itemId).isEmpty()) {
+            throw new EntityNotFoundException("Вещь не найдена");
+        }
+
+        LocalDateTime start = checkPeriod(from, to);
+        if (Duration.between(start, to).compareTo(MAX_AVAILABILITY_PERIOD) > 0) {
+            log.info("Слишком длинный период доступности вещи {}: from = {}, to = {}", itemId, from, to);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный период доступности");
+        }
+
+        List<ItemAvailabilitySlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = start;
+        for (BookingInterval busy : bookingIntervalIndex.busy(itemId, start, to)) {
+            if (busy.getStart().isAfter(cursor)) {
+                slots.add(new ItemAvailabilitySlotDto(cursor, busy.getStart(), true));
+            }
+            LocalDateTime busyEnd = busy.getEnd().isBefore(to) ? busy.getEnd() : to;
+            slots.add(new ItemAvailabilitySlotDto(busy.getStart().isAfter(cursor) ? busy.getStart() : cursor,
+                    busyEnd, false));
+            cursor = busyEnd;
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new ItemAvailabilitySlotDto(cursor, to, true));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(start)
+                .to(to)
+                .slots(slots)
+                .build();
+    }
+
+    /**
+     * Индекс бронирований хранит только незавершённые бронирования, поэтому прошедшая часть периода
+     * отбрасывается; возвращает начало периода не раньше текущего момента.
+     */
+    private static LocalDateTime checkPeriod(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный период доступности");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!to.isAfter(start)) {
+            log.info("Некорректный период доступности: from = {}, to = {}", from, to);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный период доступности");
+        }
+        return start;
     }
 
     @Override
     @Transactional
     public CommentResponseDto addComment(Long userId, Long itemId, CommentRequestDto commentRequestDto) {
-        User user = userRepository.findById(userId)
+        User user = userCache.find(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден"));
         Item item = itemRepository.findByIdFull(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Вещь не найдена"));
@@ -161,8 +374,7 @@ public class ItemServiceImpl implements ItemService {
 
         boolean isItemFound = false;
         for (Booking booking : bookings) {
-            if (!BookingStatus.REJECTED.equals(booking.getStatus())
-                    && !BookingStatus.WAITING.equals(booking.getStatus())
+            if (BookingStatus.APPROVED.equals(booking.getStatus())
                     && !booking.getStart().isAfter(LocalDateTime.now())) {
                 isItemFound = true;
                 break;
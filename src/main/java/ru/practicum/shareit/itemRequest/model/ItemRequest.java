@@ -1,6 +1,10 @@
 package ru.practicum.shareit.itemRequest.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import ru.practicum.shareit.utility.PooledSequenceGenerator;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -17,7 +21,9 @@ import java.time.LocalDateTime;
 @Table(name = "item_requests")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "item_requests_seq")
+    @GenericGenerator(name = "item_requests_seq", strategy = PooledSequenceGenerator.NAME,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_requests_id_seq"))
     @Column(name = "id")
     private Long id;
 
@@ -9,17 +9,22 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapperDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestInputDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestOutputDto;
 import ru.practicum.shareit.itemRequest.mapper.ItemRequestMapper;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 import ru.practicum.shareit.itemRequest.storage.ItemRequestRepository;
-import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.utility.Utility;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Repository
@@ -29,11 +34,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public ItemRequestOutputDto createItemRequest(Long userId, ItemRequestInputDto itemRequestInputDto) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             log.info("user с id {} не найден", userId);
             throw new EntityNotFoundException("Юзер с id " + userId + " не найден");
         }
@@ -43,7 +48,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestOutputDto getItemRequestsByIdOwner(Long userId, Long itemRequestId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             log.info("user с id {} не найден", userId);
             throw new EntityNotFoundException("user с id " + userId + " не найден");
         }
@@ -54,13 +59,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         }
 
         ItemRequestOutputDto itemRequestOutputDto = ItemRequestMapper.toOutputDto(itemRequestRepository.findById(itemRequestId).get());
-        itemRequestOutputDto.setItems(ItemMapperDto.toListItemDto(itemRepository.findAllByRequestId(itemRequestId)));
+        itemRequestOutputDto.setItems(itemRepository.findViewsByRequestId(itemRequestId).stream()
+                .map(ItemMapperDto::toItemDto)
+                .collect(Collectors.toList()));
         return itemRequestOutputDto;
     }
 
     @Override
     public List<ItemRequestOutputDto> getItemRequestsByOtherUsers(Long userId, Integer from, Integer size) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             log.info("user с id {} не найден", userId);
             throw new EntityNotFoundException("Юзер с id " + userId + " не найден");
         }
@@ -68,24 +75,32 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Pageable sortedPagination = Utility.paginationWithoutSort(from, size);
         Page<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdNot(userId, sortedPagination);
         List<ItemRequestOutputDto> itemRequestOutputDtoList = ItemRequestMapper.toItemRequestOutputList(itemRequests.toList());
-        for (ItemRequestOutputDto dto : itemRequestOutputDtoList) {
-            dto.setItems(ItemMapperDto.toListItemDto(itemRepository.findAllByRequestId(dto.getId())));
-        }
+        fillItems(itemRequestOutputDtoList);
         return itemRequestOutputDtoList;
     }
 
     @Override
     public List<ItemRequestOutputDto> getItemRequest(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             log.info("user с id {} не найден", userId);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Юзер с id " + userId + " не найден");
         }
         List<ItemRequestOutputDto> list = ItemRequestMapper.toItemRequestOutputList(itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
-
-        for (ItemRequestOutputDto request : list) {
-            request.setItems(ItemMapperDto.toListItemDto(itemRepository.findAllByRequestId(request.getId())));
-        }
+        fillItems(list);
         log.info("Получен список запросов user-а с id {}", userId);
         return list;
     }
+
+    private void fillItems(List<ItemRequestOutputDto> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = requests.stream().map(ItemRequestOutputDto::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequest = itemRepository.findViewsByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemView::getRequestId,
+                        Collectors.mapping(ItemMapperDto::toItemDto, Collectors.toList())));
+        for (ItemRequestOutputDto request : requests) {
+            request.setItems(itemsByRequest.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Публикует метрики Hibernate (hibernate_statements_total и др.), только если включён сбор статистики
+ * {@code shareit.hibernate.statistics.enabled}. По умолчанию он выключен: статистика обновляет общие счётчики
+ * на каждый запрос к БД, а без неё метрики Hibernate остаются нулевыми. Автоконфигурация Actuator для этих
+ * метрик отключена в application.properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.hibernate.statistics.enabled", havingValue = "true")
+public class HibernateMetricsConfig {
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory",
+                List.of());
+    }
+}
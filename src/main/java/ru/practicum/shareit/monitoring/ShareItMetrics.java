@@ -0,0 +1,100 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.QueryType;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.service.BookingExpiryRoller;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import java.util.Locale;
+
+/**
+ * Публикует в Micrometer собственные счётчики сервиса: кэши пользователей и поиска,
+ * отмену просроченных бронирований и SQL-запросы по эндпоинтам.
+ * Задержки эндпоинтов, методов репозиториев и пул Hikari снимает Spring Boot Actuator, статистику Hibernate —
+ * {@link HibernateMetricsConfig}, если она включена.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShareItMetrics implements MeterBinder {
+    private final UserCache userCache;
+    private final ItemSearchCache searchCache;
+    private final BookingExpiryRoller expiryRoller;
+    private final SqlEndpointStatistics sqlStatistics;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindUserCache(registry);
+        bindSearchCache(registry);
+        bindBookingExpiry(registry);
+        sqlStatistics.forEachEndpoint((endpoint, statistics) -> bindSqlEndpoint(registry, endpoint, statistics));
+    }
+
+    private void bindUserCache(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.user.cache.requests", userCache, UserCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("shareit.user.cache.requests", userCache, UserCache::getNegativeHitCount)
+                .tag("result", "negative_hit")
+                .register(registry);
+        FunctionCounter.builder("shareit.user.cache.requests", userCache, UserCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("shareit.user.cache.evictions", userCache, UserCache::getEvictionCount)
+                .register(registry);
+    }
+
+    private void bindSearchCache(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.search.cache.requests", searchCache, ItemSearchCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("shareit.search.cache.requests", searchCache, ItemSearchCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("shareit.search.cache.evictions", searchCache, ItemSearchCache::getEvictionCount)
+                .register(registry);
+        FunctionCounter.builder("shareit.search.cache.invalidations", searchCache,
+                        ItemSearchCache::getInvalidationCount)
+                .register(registry);
+        Gauge.builder("shareit.search.cache.size", searchCache, ItemSearchCache::size)
+                .register(registry);
+    }
+
+    private void bindBookingExpiry(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.booking.expiry.runs", expiryRoller, BookingExpiryRoller::getRunCount)
+                .register(registry);
+        FunctionCounter.builder("shareit.booking.expiry.batches", expiryRoller, BookingExpiryRoller::getBatchCount)
+                .register(registry);
+        FunctionCounter.builder("shareit.booking.expiry.canceled", expiryRoller,
+                        BookingExpiryRoller::getCanceledCount)
+                .register(registry);
+        Gauge.builder("shareit.booking.expiry.last.run.canceled", expiryRoller,
+                        BookingExpiryRoller::getLastRunCanceledCount)
+                .register(registry);
+    }
+
+    private void bindSqlEndpoint(MeterRegistry registry, String endpoint,
+                                 SqlEndpointStatistics.Endpoint statistics) {
+        FunctionCounter.builder("shareit.sql.requests", statistics, SqlEndpointStatistics.Endpoint::getRequests)
+                .tag("endpoint", endpoint)
+                .register(registry);
+        for (QueryType type : QueryType.values()) {
+            FunctionCounter.builder("shareit.sql.statements", statistics, value -> value.getStatements(type))
+                    .tag("endpoint", endpoint)
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("shareit.sql.time", statistics, SqlEndpointStatistics.Endpoint::getElapsedMillis)
+                .tag("endpoint", endpoint)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("shareit.sql.statements.max", statistics, SqlEndpointStatistics.Endpoint::getMaxStatements)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+}
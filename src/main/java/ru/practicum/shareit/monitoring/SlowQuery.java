@@ -0,0 +1,26 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Медленный SQL-запрос с параметрами, эндпоинтом и пользователем, от имени которого он выполнен.
+ * План есть только для успешных SELECT, попавших в выборку на PostgreSQL.
+ * elapsedMillis — время всего выполнения: для пакета (batchSize больше 1) это общее время пакета,
+ * одинаковое у всех его запросов.
+ */
+@Value
+@Builder
+public class SlowQuery {
+    LocalDateTime executedAt;
+    long elapsedMillis;
+    int batchSize;
+    String query;
+    List<List<String>> parameters;
+    String endpoint;
+    String userId;
+    String plan;
+}
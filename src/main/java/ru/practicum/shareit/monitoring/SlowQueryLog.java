@@ -0,0 +1,183 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Слушатель datasource-proxy, запоминающий запросы дольше порога в кольцевом буфере последних записей.
+ * Эндпоинт и пользователь берутся из контекста, который выставляет {@link SqlStatementInterceptor}.
+ * На PostgreSQL для доли успешно выполненных медленных SELECT снимается план через EXPLAIN (ANALYZE off)
+ * на том же соединении с теми же параметрами; сам запрос при этом повторно не выполняется. Внутри транзакции
+ * EXPLAIN идёт под точкой сохранения, чтобы его ошибка не прервала транзакцию приложения.
+ * Параметры запросов (email и прочие данные пользователей) хранятся только в буфере и в лог не пишутся.
+ */
+@Slf4j
+public class SlowQueryLog implements QueryExecutionListener {
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final long thresholdMillis;
+    private final int capacity;
+    private final double explainSampleRate;
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+    private final ThreadLocal<RequestContext> context = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> explaining = new ThreadLocal<>();
+
+    public SlowQueryLog(Duration threshold, int capacity, double explainSampleRate) {
+        this.thresholdMillis = threshold.toMillis();
+        this.capacity = capacity;
+        this.explainSampleRate = explainSampleRate;
+    }
+
+    /**
+     * Привязывает эндпоинт и пользователя к запросам текущего потока.
+     */
+    public void bind(String endpoint, String userId) {
+        context.set(new RequestContext(endpoint, userId));
+    }
+
+    public void unbind() {
+        context.remove();
+    }
+
+    /**
+     * Последние медленные запросы, начиная с самого нового.
+     */
+    public synchronized List<SlowQuery> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || explaining.get() != null) {
+            return;
+        }
+        RequestContext request = context.get();
+        int batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 1;
+        for (QueryInfo queryInfo : queryInfoList) {
+            SlowQuery slowQuery = SlowQuery.builder()
+                    .executedAt(LocalDateTime.now())
+                    .elapsedMillis(execInfo.getElapsedTime())
+                    .batchSize(batchSize)
+                    .query(queryInfo.getQuery())
+                    .parameters(parameters(queryInfo))
+                    .endpoint(request != null ? request.getEndpoint() : null)
+                    .userId(request != null ? request.getUserId() : null)
+                    .plan(explainable(execInfo, queryInfo) && sampled() ? explain(execInfo, queryInfo) : null)
+                    .build();
+            log.warn("Медленный SQL-запрос {} мс, пакет из {} ({}, пользователь {}): {}",
+                    slowQuery.getElapsedMillis(), slowQuery.getBatchSize(), slowQuery.getEndpoint(),
+                    slowQuery.getUserId(), slowQuery.getQuery());
+            add(slowQuery);
+        }
+    }
+
+    private synchronized void add(SlowQuery slowQuery) {
+        if (entries.size() == capacity) {
+            entries.removeLast();
+        }
+        entries.addFirst(slowQuery);
+    }
+
+    /**
+     * План снимается только для успешно выполненных SELECT: упавший запрос мог оставить транзакцию
+     * в ошибочном состоянии, а EXPLAIN для DML не нужен.
+     */
+    private static boolean explainable(ExecutionInfo execInfo, QueryInfo queryInfo) {
+        return execInfo.isSuccess() && QueryUtils.getQueryType(queryInfo.getQuery()) == QueryType.SELECT;
+    }
+
+    private boolean sampled() {
+        return explainSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < explainSampleRate;
+    }
+
+    private static List<List<String>> parameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().stream()
+                .map(operations -> operations.stream()
+                        .map(operation -> ParameterSetOperation.isSetNullParameterOperation(operation)
+                                ? "null" : String.valueOf(operation.getArgs()[1]))
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private String explain(ExecutionInfo execInfo, QueryInfo queryInfo) {
+        explaining.set(Boolean.TRUE);
+        try {
+            Connection connection = execInfo.getStatement().getConnection();
+            if (!POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())) {
+                return null;
+            }
+            Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            try {
+                String plan = plan(connection, queryInfo);
+                if (savepoint != null) {
+                    connection.releaseSavepoint(savepoint);
+                }
+                return plan;
+            } catch (SQLException | ReflectiveOperationException e) {
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                throw e;
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            log.info("Не удалось получить план медленного запроса: {}", e.getMessage());
+            return null;
+        } finally {
+            explaining.remove();
+        }
+    }
+
+    private static String plan(Connection connection, QueryInfo queryInfo)
+            throws SQLException, ReflectiveOperationException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE off) "
+                + queryInfo.getQuery())) {
+            if (!queryInfo.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+            }
+            StringJoiner plan = new StringJoiner("\n");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.add(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    @Value
+    private static class RequestContext {
+        String endpoint;
+        String userId;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.Getter;
+import net.ttddyy.dsproxy.QueryType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Накопленные SQL-запросы по эндпоинтам вида "GET /items/{itemId}".
+ */
+public class SqlEndpointStatistics {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Endpoint>> listeners = new CopyOnWriteArrayList<>();
+
+    public void record(String endpoint, SqlStatementCounter counter) {
+        Endpoint statistics = endpoints.get(endpoint);
+        if (statistics == null) {
+            Endpoint created = new Endpoint();
+            statistics = endpoints.putIfAbsent(endpoint, created);
+            if (statistics == null) {
+                statistics = created;
+                listeners.forEach(listener -> listener.accept(endpoint, created));
+            }
+        }
+        statistics.record(counter);
+    }
+
+    /**
+     * Вызывает действие для уже известных эндпоинтов и для каждого нового при первом запросе к нему.
+     */
+    public synchronized void forEachEndpoint(BiConsumer<String, Endpoint> listener) {
+        listeners.add(listener);
+        endpoints.forEach(listener);
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    public static class Endpoint {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder elapsedMillis = new LongAdder();
+        private final Map<QueryType, LongAdder> statements = new EnumMap<>(QueryType.class);
+        @Getter
+        private volatile int maxStatements;
+
+        Endpoint() {
+            for (QueryType type : QueryType.values()) {
+                statements.put(type, new LongAdder());
+            }
+        }
+
+        private void record(SqlStatementCounter counter) {
+            requests.increment();
+            elapsedMillis.add(counter.getElapsedMillis());
+            for (QueryType type : QueryType.values()) {
+                statements.get(type).add(counter.getCount(type));
+            }
+            int total = counter.getTotal();
+            if (total > maxStatements) {
+                synchronized (this) {
+                    maxStatements = Math.max(maxStatements, total);
+                }
+            }
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis.sum();
+        }
+
+        public long getStatements(QueryType type) {
+            return statements.get(type).sum();
+        }
+    }
+}
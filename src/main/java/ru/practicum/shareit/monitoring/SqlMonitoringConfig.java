@@ -0,0 +1,74 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Оборачивает DataSource в datasource-proxy и подключает подсчёт SQL-запросов по эндпоинтам
+ * и журнал медленных запросов.
+ */
+@Configuration
+public class SqlMonitoringConfig implements WebMvcConfigurer {
+    @Value("${shareit.sql.warn-statements:20}")
+    private int warnStatements;
+    @Autowired
+    private ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder() {
+        return new SqlStatementRecorder();
+    }
+
+    @Bean
+    public SqlEndpointStatistics sqlEndpointStatistics() {
+        return new SqlEndpointStatistics();
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${shareit.sql.slow-query.threshold:PT0.5S}") Duration threshold,
+                                     @Value("${shareit.sql.slow-query.capacity:100}") int capacity,
+                                     @Value("${shareit.sql.slow-query.explain-sample-rate:0.1}")
+                                     double explainSampleRate) {
+        return new SlowQueryLog(threshold, capacity, explainSampleRate);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlDataSourceProxy(ObjectProvider<SqlStatementRecorder> recorder,
+                                                       ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(recorder.getObject())
+                        .listener(slowQueryLog.getObject())
+                        .build();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementInterceptor(sqlStatementRecorder(), sqlEndpointStatistics(),
+                slowQueryLogProvider.getObject(), warnStatements));
+    }
+}
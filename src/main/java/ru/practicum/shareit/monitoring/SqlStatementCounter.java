@@ -0,0 +1,48 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.QueryType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Счётчик SQL-запросов одного запроса к API или одной транзакции. Заполняется только потоком,
+ * который его открыл, поэтому не синхронизирован. Вложенный счётчик дописывает запросы и в родительский.
+ */
+public class SqlStatementCounter {
+    private final SqlStatementCounter parent;
+    private final Map<QueryType, Integer> counts = new EnumMap<>(QueryType.class);
+    private long elapsedMillis;
+
+    SqlStatementCounter(SqlStatementCounter parent) {
+        this.parent = parent;
+    }
+
+    SqlStatementCounter getParent() {
+        return parent;
+    }
+
+    void record(QueryType type, long elapsedMillis) {
+        for (SqlStatementCounter counter = this; counter != null; counter = counter.parent) {
+            counter.counts.merge(type, 1, Integer::sum);
+            counter.elapsedMillis += elapsedMillis;
+        }
+    }
+
+    public int getCount(QueryType type) {
+        return counts.getOrDefault(type, 0);
+    }
+
+    public int getTotal() {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return counts + ", " + elapsedMillis + " мс";
+    }
+}
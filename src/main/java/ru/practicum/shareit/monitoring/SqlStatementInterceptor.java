@@ -0,0 +1,72 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Считает SQL-запросы каждого запроса к API и копит их по эндпоинтам. Запросы, выполнившие больше
+ * {@code shareit.sql.warn-statements} обращений к БД, пишутся в лог как вероятный N+1.
+ * Эндпоинт и X-Sharer-User-Id передаются в {@link SlowQueryLog} для записей о медленных запросах.
+ * Для асинхронных ответов (StreamingResponseBody) учитываются запросы обработчика: счётчик закрывается, когда
+ * поток контейнера отпускает запрос, а повторный ASYNC-диспатч в другом потоке не считается.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatementInterceptor implements AsyncHandlerInterceptor {
+    private static final String COUNTER = SqlStatementInterceptor.class.getName() + ".COUNTER";
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final SqlStatementRecorder recorder;
+    private final SqlEndpointStatistics statistics;
+    private final SlowQueryLog slowQueryLog;
+    private final int warnStatements;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        request.setAttribute(COUNTER, recorder.start());
+        slowQueryLog.bind(endpoint(request), request.getHeader(USER_ID_HEADER));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        if (request.getAttribute(COUNTER) == null) {
+            return;
+        }
+        request.removeAttribute(COUNTER);
+        slowQueryLog.unbind();
+        SqlStatementCounter counter = recorder.stop();
+        String endpoint = endpoint(request);
+        statistics.record(endpoint, counter);
+        if (counter.getTotal() > warnStatements) {
+            log.warn("{} выполнил {} SQL-запросов: {}", endpoint, counter.getTotal(), counter);
+        } else {
+            log.debug("{} выполнил SQL-запросы: {}", endpoint, counter);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
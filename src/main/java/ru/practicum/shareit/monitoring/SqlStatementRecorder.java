@@ -0,0 +1,58 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Слушатель datasource-proxy, считающий выполненные SQL-запросы текущего потока по типам и времени.
+ * Запросы учитываются только между {@link #start()} и {@link #stop()}; пакет из нескольких наборов
+ * параметров считается одним запросом, как и выполняется драйвером.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+    private final ThreadLocal<SqlStatementCounter> current = new ThreadLocal<>();
+
+    /**
+     * Открывает новый счётчик для текущего потока; уже открытый счётчик продолжает считать запросы.
+     */
+    public SqlStatementCounter start() {
+        SqlStatementCounter counter = new SqlStatementCounter(current.get());
+        current.set(counter);
+        return counter;
+    }
+
+    /**
+     * Закрывает последний открытый счётчик текущего потока и возвращает его.
+     */
+    public SqlStatementCounter stop() {
+        SqlStatementCounter counter = current.get();
+        if (counter == null) {
+            throw new IllegalStateException("Счётчик SQL-запросов не был открыт");
+        }
+        if (counter.getParent() == null) {
+            current.remove();
+        } else {
+            current.set(counter.getParent());
+        }
+        return counter;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementCounter counter = current.get();
+        if (counter == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = execInfo.getElapsedTime() / queryInfoList.size();
+        for (QueryInfo queryInfo : queryInfoList) {
+            counter.record(QueryUtils.getQueryType(queryInfo.getQuery()), elapsed);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repositories.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума по email пользователей: отрицательный ответ точен, и запрос в БД не нужен,
+ * положительный нужно перепроверять. Прогревается из таблицы users при старте и пополняется при записи;
+ * удалённые email остаются в фильтре и дают лишь ложноположительные ответы.
+ */
+@Slf4j
+@Component
+public class EmailBloomFilter {
+    private final UserRepository userRepository;
+    private final int bits;
+    private final int hashes;
+    private final AtomicLongArray words;
+    private volatile boolean loaded;
+
+    @Autowired
+    public EmailBloomFilter(UserRepository userRepository,
+                            @Value("${shareit.user.email-filter.expected-size:100000}") int expectedSize,
+                            @Value("${shareit.user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        double ln2 = Math.log(2);
+        this.bits = Math.max(64, (int) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedSize * ln2));
+        this.words = new AtomicLongArray((bits + 63) / 64);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    public boolean mightContain(String email) {
+        ensureLoaded();
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        ensureLoaded();
+        set(email);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                List<String> emails = userRepository.findAllEmails();
+                emails.forEach(this::set);
+                loaded = true;
+                log.info("Фильтр email прогрет, записей: {}", emails.size());
+            }
+        }
+    }
+
+    private void set(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(bit >>> 6);
+            } while ((word & mask) == 0 && !words.compareAndSet(bit >>> 6, word, word | mask));
+        }
+    }
+
+    /**
+     * 64-битный FNV-1a с финальным перемешиванием; две половины дают независимые хэши для двойного хэширования.
+     */
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.user.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.utility.LruCache;
+import ru.practicum.shareit.utility.Utility;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Общий кэш пользователей для проверки X-Sharer-User-Id и чтения базовых данных пользователя.
+ * Хранит снимки пользователей, факты существования и отдельно — отсутствующие id с коротким TTL,
+ * чтобы поток несуществующих id не доходил до БД. Сбрасывается из UserServiceImpl после фиксации изменений.
+ * Наружу отдаются копии снимков, не привязанные к контексту персистентности.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+    private final LruCache<Long, User> users;
+    private final LruCache<Long, Boolean> existence;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     @Value("${shareit.user.cache.max-size:10000}") int maxSize,
+                     @Value("${shareit.user.cache.ttl:PT10M}") Duration ttl,
+                     @Value("${shareit.user.cache.negative-ttl:PT30S}") Duration negativeTtl) {
+        this(userRepository, maxSize, ttl, negativeTtl, Clock.systemUTC());
+    }
+
+    public UserCache(UserRepository userRepository, int maxSize, Duration ttl, Duration negativeTtl, Clock clock) {
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.users = new LruCache<>(maxSize);
+        this.existence = new LruCache<>(maxSize);
+    }
+
+    public boolean exists(Long id) {
+        if (id == null) {
+            return false;
+        }
+        Instant now = clock.instant();
+        synchronized (this) {
+            if (users.get(id, now) != null) {
+                hits.incrementAndGet();
+                return true;
+            }
+            Boolean known = existence.get(id, now);
+            if (known != null) {
+                (known ? hits : negativeHits).incrementAndGet();
+                return known;
+            }
+        }
+        misses.incrementAndGet();
+        long loadedAt = version.get();
+        boolean exists = userRepository.existsById(id);
+        synchronized (this) {
+            if (version.get() == loadedAt) {
+                existence.put(id, exists, now.plus(exists ? ttl : negativeTtl));
+            }
+        }
+        return exists;
+    }
+
+    public Optional<User> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        synchronized (this) {
+            User cached = users.get(id, now);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(copy(cached));
+            }
+            if (Boolean.FALSE.equals(existence.get(id, now))) {
+                negativeHits.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+        misses.incrementAndGet();
+        long loadedAt = version.get();
+        Optional<User> user = userRepository.findById(id).map(UserCache::copy);
+        synchronized (this) {
+            if (version.get() == loadedAt) {
+                if (user.isPresent()) {
+                    users.put(id, user.get(), now.plus(ttl));
+                } else {
+                    existence.put(id, false, now.plus(negativeTtl));
+                }
+            }
+        }
+        return user.map(UserCache::copy);
+    }
+
+    /**
+     * Запоминает созданного или изменённого пользователя после фиксации транзакции.
+     */
+    public void put(User user) {
+        User snapshot = copy(user);
+        Utility.afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                existence.remove(snapshot.getId());
+                users.put(snapshot.getId(), snapshot, clock.instant().plus(ttl));
+            }
+        });
+    }
+
+    public void evict(Long id) {
+        Utility.afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                users.remove(id);
+                existence.remove(id);
+            }
+        });
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized long getEvictionCount() {
+        return users.getEvictionCount() + existence.getEvictionCount();
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+}
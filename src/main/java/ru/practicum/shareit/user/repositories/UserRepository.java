@@ -1,9 +1,12 @@
 package ru.practicum.shareit.user.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsUserByIdIs(Long id);
@@ -11,4 +14,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     void deleteUserByIdIs(Long id);
 
     boolean existsUserByEmailIs(String email);
+
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
 }
\ No newline at end of file
@@ -2,18 +2,28 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.exp.EmailDuplicateException;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapperDto;
+import ru.practicum.shareit.user.cache.EmailBloomFilter;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.utility.Utility;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 import static ru.practicum.shareit.user.dto.UserMapperDto.toListUserDto;
@@ -24,19 +34,36 @@ import static ru.practicum.shareit.user.dto.UserMapperDto.toUserDto;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "UQ_EMAIL_USER";
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailFilter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointersService pointersService;
 
     @Override
     @Transactional
     public UserDto save(UserDto userDto) {
         User user = UserMapperDto.fromUserDto(userDto);
 
-        if (userRepository.existsUserByEmailIs(userDto.getEmail())) {
-            userRepository.save(user);
+        if (isEmailTaken(userDto.getEmail())) {
+            throw new EmailDuplicateException("Пользователь с таким email уже существует");
+        }
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConflict(e)) {
+                throw e;
+            }
             throw new EmailDuplicateException("Пользователь с таким email уже существует");
         }
+        emailFilter.add(saved.getEmail());
+        userCache.put(saved);
         log.info("Пользователь сохранен: " + userDto);
-        return toUserDto(userRepository.save(user));
+        return toUserDto(saved);
     }
 
     @Override
@@ -45,7 +72,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("такого user не существует"));
 
         if (userDto.getEmail() != null) {
-            if (userRepository.existsUserByEmailIs(userDto.getEmail()) && !user.getEmail().equals(userDto.getEmail())) {
+            if (!user.getEmail().equals(userDto.getEmail()) && isEmailTaken(userDto.getEmail())) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Пользователь с таким email уже существует");
             }
             user.setEmail(userDto.getEmail());
@@ -54,13 +81,46 @@ public class UserServiceImpl implements UserService {
         if (userDto.getName() != null) {
             user.setName(userDto.getName());
         }
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConflict(e)) {
+                throw e;
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Пользователь с таким email уже существует");
+        }
+        emailFilter.add(saved.getEmail());
+        userCache.put(saved);
         log.info("Пользователь обновлён: " + userDto);
-        return toUserDto(userRepository.save(user));
+        return toUserDto(saved);
+    }
+
+    /**
+     * Для email, которого точно нет в фильтре, запрос в БД не делается: дубликат при гонке поймает UQ_EMAIL_USER.
+     */
+    private boolean isEmailTaken(String email) {
+        return emailFilter.mightContain(email) && userRepository.existsUserByEmailIs(email);
+    }
+
+    /**
+     * Дубликат email — только нарушение UQ_EMAIL_USER; NOT NULL, длина и прочие ограничения пробрасываются как есть.
+     */
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String constraint = cause instanceof ConstraintViolationException
+                    ? ((ConstraintViolationException) cause).getConstraintName()
+                    : cause.getMessage();
+            if (constraint != null && constraint.toUpperCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public UserDto getById(Long id) {
-        Optional<User> user = userRepository.findById(id);
+        Optional<User> user = userCache.find(id);
 
         if (user.isPresent()) {
             log.info("User c id {} успешно получен", id);
@@ -74,7 +134,12 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(Long id) {
         if (userRepository.existsUserByIdIs(id)) {
+            pointersService.invalidateBooker(id);
             userRepository.deleteUserByIdIs(id);
+            userCache.evict(id);
+            // вещи удаляются каскадом в БД в обход Hibernate, поэтому регион второго уровня сбрасывается целиком
+            Utility.afterCommit(() -> entityManagerFactory.getCache().evict(Item.class));
+            bookingIntervalIndex.invalidateAll();
             log.info("User {} успешно удален", id);
             return;
         }
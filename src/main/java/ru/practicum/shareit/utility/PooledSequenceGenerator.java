@@ -0,0 +1,28 @@
+package ru.practicum.shareit.utility;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Генератор идентификаторов на последовательности БД с pooled-оптимизатором.
+ * Размер блока берётся из настройки {@value #ALLOCATION_SIZE}, а не из аннотации,
+ * поэтому он совпадает с шагом последовательностей в schema.sql.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String NAME = "ru.practicum.shareit.utility.PooledSequenceGenerator";
+    public static final String ALLOCATION_SIZE = "shareit.id.allocation_size";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_INCREMENT_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -6,16 +6,23 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 @Slf4j
 @UtilityClass
 public final class Utility {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    /**
+     * Размер страницы offset-пагинации, когда from и size не переданы: выборка без параметров ограничена.
+     */
+    public static final int UNPAGED_LIMIT = 1000;
 
     public static Pageable paginationWithSort(Integer from, Integer size) {
 
         if (from == null || size == null) {
-            return PageRequest.of(0, Integer.MAX_VALUE, Sort.by("created").descending());
+            return PageRequest.of(0, UNPAGED_LIMIT, Sort.by("created").descending());
         } else if (from < 0 || size <= 0) {
             log.info("Ошибка пагинации, поступили значения from = {} и size = {}", from, size);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректные значения для создания пагинации");
@@ -25,11 +32,54 @@ public final class Utility {
 
     public static Pageable paginationWithoutSort(Integer from, Integer size) {
         if (from == null || size == null) {
-            return PageRequest.of(0, Integer.MAX_VALUE);
+            return PageRequest.of(0, UNPAGED_LIMIT);
         } else if (from < 0 || size <= 0) {
             log.info("Ошибка пагинации, поступили значения from = {} и size = {}", from, size);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректные значения для создания пагинации");
         }
         return PageRequest.of(from / size, size);
     }
-}
\ No newline at end of file
+
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        } else if (size <= 0) {
+            log.info("Ошибка пагинации, поступило значение size = {}", size);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректные значения для создания пагинации");
+        }
+        return size;
+    }
+
+    /**
+     * Выполняет действие после фиксации текущей транзакции, а вне транзакции — сразу.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполняет действие, если текущая транзакция не была зафиксирована; вне транзакции ничего не делает.
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
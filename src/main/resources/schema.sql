@@ -3,10 +3,22 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS item_requests CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS item_booking_pointers CASCADE;
+DROP SEQUENCE IF EXISTS users_id_seq;
+DROP SEQUENCE IF EXISTS items_id_seq;
+DROP SEQUENCE IF EXISTS item_requests_id_seq;
+DROP SEQUENCE IF EXISTS bookings_id_seq;
+DROP SEQUENCE IF EXISTS comments_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq START WITH 1 INCREMENT BY @shareit.id.allocation-size@;
+CREATE SEQUENCE IF NOT EXISTS items_id_seq START WITH 1 INCREMENT BY @shareit.id.allocation-size@;
+CREATE SEQUENCE IF NOT EXISTS item_requests_id_seq START WITH 1 INCREMENT BY @shareit.id.allocation-size@;
+CREATE SEQUENCE IF NOT EXISTS bookings_id_seq START WITH 1 INCREMENT BY @shareit.id.allocation-size@;
+CREATE SEQUENCE IF NOT EXISTS comments_id_seq START WITH 1 INCREMENT BY @shareit.id.allocation-size@;
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id    BIGINT PRIMARY KEY,
     name  VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
     CONSTRAINT UQ_EMAIL_USER UNIQUE (email)
@@ -14,7 +26,7 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id          BIGINT PRIMARY KEY,
     name        VARCHAR(255) NOT NULL,
     description VARCHAR(512) NOT NULL,
     available   boolean      NOT NULL,
@@ -24,7 +36,7 @@ CREATE TABLE IF NOT EXISTS items
 
 CREATE TABLE IF NOT EXISTS item_requests
 (
-    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id              BIGINT PRIMARY KEY,
     description     VARCHAR(512) NOT NULL,
     requestor_id    BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created         TIMESTAMP WITHOUT TIME ZONE NOT NULL
@@ -32,19 +44,32 @@ CREATE TABLE IF NOT EXISTS item_requests
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id         BIGINT PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id    BIGINT REFERENCES items (id) ON DELETE CASCADE,
     booker_id  BIGINT REFERENCES users (id) ON DELETE CASCADE,
-    status     VARCHAR(15)                 NOT NULL
+    status     VARCHAR(15)                 NOT NULL,
+    version    BIGINT                      NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id        BIGINT PRIMARY KEY,
     text      VARCHAR                     NOT NULL,
     item_id   BIGINT REFERENCES items (id) ON DELETE CASCADE,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created   TIMESTAMP WITHOUT TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_pointers
+(
+    item_id         BIGINT PRIMARY KEY REFERENCES items (id) ON DELETE CASCADE,
+    last_booking_id BIGINT REFERENCES bookings (id) ON DELETE SET NULL,
+    next_booking_id BIGINT REFERENCES bookings (id) ON DELETE SET NULL,
+    roll_at         TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
@@ -15,23 +15,30 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingListDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {BookingController.class})
@@ -57,17 +64,17 @@ public class BookingControllerTest {
                 .id(1L)
                 .end(LocalDateTime.now().plusHours(1))
                 .start(LocalDateTime.now())
-                .booker(User.builder()
+                .booker(UserDto.builder()
                         .id(1L)
                         .name("test")
                         .email("test@email.com")
                         .build())
-                .item(Item.builder()
+                .item(ItemDto.builder()
                         .id(1L)
                         .name("item")
                         .description("item description")
                         .available(true)
-                        .owner(User.builder()
+                        .owner(UserDto.builder()
                                 .id(1L)
                                 .name("owner")
                                 .email("owner@email.com")
@@ -78,18 +85,18 @@ public class BookingControllerTest {
 
         bookResponseDto = BookingDto.builder()
                 .id(1L)
-                .item(Item.builder()
+                .item(ItemDto.builder()
                         .id(1L)
                         .name("item")
                         .description("item description")
                         .available(true)
-                        .owner(User.builder()
+                        .owner(UserDto.builder()
                                 .id(1L)
                                 .name("owner")
                                 .email("owner@email.com")
                                 .build())
                         .build())
-                .booker(User.builder()
+                .booker(UserDto.builder()
                         .id(1L)
                         .name("test")
                         .email("test@email.com")
@@ -146,6 +153,25 @@ public class BookingControllerTest {
                 .andReturn();
     }
 
+    @Test
+    @SneakyThrows
+    @DisplayName("createBookings результаты пакета")
+    void createBookingsReturnResults() {
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.builder().index(0).status(201).booking(bookResponseDto).build(),
+                BookingBatchResultDto.builder().index(1).status(404).error("Item не существует").build());
+        when(bookingService.createAll(anyLong(), anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(header, 1L)
+                        .content(objectMapper.writeValueAsString(List.of(createDto, createDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].booking.id").value(1))
+                .andExpect(jsonPath("$[1].error").value("Item не существует"));
+    }
+
     @Test
     @SneakyThrows
     @DisplayName("createBooking 400")
@@ -388,4 +414,86 @@ public class BookingControllerTest {
                 .andDo(print())
                 .andReturn();
     }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("getUserBookings cursor режим отдаёт X-Next-Cursor")
+    void getUserBookingsByCursorReturnNextCursorHeader() {
+        List<BookingDto> dtoList = List.of(bookDto);
+
+        when(bookingService.getUserBookingsByCursor(anyLong(), anyString(), isNull(), anyInt()))
+                .thenReturn(BookingListDto.builder().bookings(dtoList).nextCursor("next").build());
+        mockMvc.perform(get("/bookings")
+                        .header(header, 1L)
+                        .param("paging", "cursor")
+                        .param("size", "1")
+                        .param("state", "ALL")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoList)))
+                .andDo(print());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("getBookingsByOwner cursor режим, последняя страница")
+    void getBookingsByOwnerByCursorLastPage() {
+        when(bookingService.getOwnerBookingsByCursor(anyLong(), anyString(), anyString(), any()))
+                .thenReturn(BookingListDto.builder().bookings(List.of()).build());
+        mockMvc.perform(get("/bookings/owner")
+                        .header(header, 1L)
+                        .param("cursor", "token")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(content().json("[]"))
+                .andDo(print());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("getUserBookings неизвестный режим пагинации")
+    void getUserBookingsUnknownPaging() {
+        mockMvc.perform(get("/bookings")
+                        .header(header, 1L)
+                        .param("paging", "page")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andDo(print());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("getBookingsByOwner includeTotal отдаёт X-Total-Count")
+    void getBookingsByOwnerIncludeTotal() {
+        when(bookingService.getOwnerBookings(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookDto));
+        when(bookingService.countOwnerBookings(anyLong(), anyString())).thenReturn(5L);
+        mockMvc.perform(get("/bookings/owner")
+                        .header(header, 1L)
+                        .param("from", "0")
+                        .param("size", "1")
+                        .param("includeTotal", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "5"))
+                .andDo(print());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("getUserBookings без includeTotal count не вызывается")
+    void getUserBookingsWithoutTotal() {
+        when(bookingService.getUserBookings(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookDto));
+        mockMvc.perform(get("/bookings")
+                        .header(header, 1L)
+                        .param("from", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andDo(print());
+        verify(bookingService, never()).countUserBookings(anyLong(), anyString());
+    }
 }
\ No newline at end of file
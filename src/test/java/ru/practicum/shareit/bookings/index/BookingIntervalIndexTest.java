@@ -0,0 +1,253 @@
+package ru.practicum.shareit.bookings.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final Long ITEM_ID = 1L;
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+    private LocalDateTime now;
+    private Booking existing;
+
+    @BeforeEach
+    void init() {
+        index = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(10));
+        now = LocalDateTime.now().plusHours(1);
+        existing = booking(10L, now.plusDays(2), now.plusDays(4));
+    }
+
+    @Test
+    @DisplayName("busy возвращает только интервалы, пересекающие период, в порядке начала")
+    void busyWhenPeriodCoversPartOfIntervals() {
+        Booking later = booking(11L, now.plusDays(6), now.plusDays(7));
+        Booking outside = booking(12L, now.plusDays(9), now.plusDays(10));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(outside, existing, later));
+
+        List<BookingInterval> busy = index.busy(ITEM_ID, now.plusDays(3), now.plusDays(9));
+
+        assertEquals(2, busy.size());
+        assertEquals(10L, busy.get(0).getBookingId());
+        assertEquals(11L, busy.get(1).getBookingId());
+    }
+
+    @Test
+    @DisplayName("reserve свободный интервал до, после и встык")
+    void reserveWhenNoOverlap() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing));
+
+        assertDoesNotThrow(() -> index.reserve(ITEM_ID, now, now.plusDays(1)));
+        assertDoesNotThrow(() -> index.reserve(ITEM_ID, now.plusDays(1), now.plusDays(2)));
+        assertDoesNotThrow(() -> index.reserve(ITEM_ID, now.plusDays(4), now.plusDays(5)));
+        verify(bookingRepository, times(1)).findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("reserve пересекающийся интервал")
+    void reserveWhenOverlap() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing));
+
+        ResponseStatusException inside = assertThrows(ResponseStatusException.class,
+                () -> index.reserve(ITEM_ID, now.plusDays(3), now.plusDays(3).plusHours(1)));
+        ResponseStatusException covering = assertThrows(ResponseStatusException.class,
+                () -> index.reserve(ITEM_ID, now.plusDays(1), now.plusDays(5)));
+
+        assertEquals(HttpStatus.CONFLICT, inside.getStatus());
+        assertEquals(HttpStatus.CONFLICT, covering.getStatus());
+    }
+
+    @Test
+    @DisplayName("reserve учитывает ранее зарезервированные интервалы")
+    void reserveWhenOverlapsReservation() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(), List.of(booking(11L, now, now.plusDays(1))));
+        BookingInterval interval = index.reserve(ITEM_ID, now, now.plusDays(1));
+        interval.setBookingId(11L);
+
+        assertThrows(ResponseStatusException.class,
+                () -> index.reserve(ITEM_ID, now.plusHours(2), now.plusHours(3)));
+    }
+
+    @Test
+    @DisplayName("release освобождает интервал")
+    void releaseWhenBookingRejected() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing), List.of());
+
+        index.reserve(ITEM_ID, now, now.plusDays(1));
+        index.release(existing);
+
+        assertDoesNotThrow(() -> index.reserve(ITEM_ID, now.plusDays(2), now.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("reserve перепроверяет устаревший индекс по БД")
+    void reserveWhenIndexIsStale() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing), List.of());
+
+        index.reserve(ITEM_ID, now, now.plusDays(1));
+
+        assertDoesNotThrow(() -> index.reserve(ITEM_ID, now.plusDays(2), now.plusDays(3)));
+        verify(bookingRepository, times(2)).findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("checkApprove не учитывает само бронирование")
+    void checkApproveWhenOnlySelf() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing));
+
+        assertDoesNotThrow(() -> index.checkApprove(existing));
+    }
+
+    @Test
+    @DisplayName("checkApprove пересечение с другим бронированием")
+    void checkApproveWhenOverlapsOther() {
+        Booking other = booking(11L, now.plusDays(3), now.plusDays(5));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing, other));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> index.checkApprove(other));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("isFree и busy учитывают пересекающиеся интервалы из БД")
+    void isFreeWhenStoredIntervalsOverlap() {
+        Booking longWaiting = booking(11L, now.plusDays(1), now.plusDays(10));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(longWaiting, existing));
+
+        assertFalse(index.isFree(ITEM_ID, now.plusDays(6), now.plusDays(7)));
+        List<BookingInterval> busy = index.busy(ITEM_ID, now.plusDays(5), now.plusDays(6));
+        assertEquals(1, busy.size());
+        assertEquals(11L, busy.get(0).getBookingId());
+        assertThrows(ResponseStatusException.class,
+                () -> index.reserve(ITEM_ID, now.plusDays(6), now.plusDays(7)));
+    }
+
+    @Test
+    @DisplayName("reserve не теряет резервы при параллельном перечитывании")
+    void reserveWhenConcurrentReloads() throws InterruptedException {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                ready.await();
+                // резервы остаются незафиксированными, как в открытых транзакциях
+                TransactionSynchronizationManager.initSynchronization();
+                for (int day = 5; day < 25; day++) {
+                    try {
+                        index.reserve(ITEM_ID, now.plusDays(day), now.plusDays(day + 1));
+                        reserved.incrementAndGet();
+                    } catch (ResponseStatusException ignored) {
+                        // день уже занят другим потоком
+                    }
+                }
+                TransactionSynchronizationManager.clearSynchronization();
+                return null;
+            });
+        }
+        ready.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(20, reserved.get());
+    }
+
+    @Test
+    @DisplayName("invalidate и истёкший ttl перечитывают интервалы из БД")
+    void isFreeWhenInvalidated() {
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(existing), List.of());
+
+        assertFalse(index.isFree(ITEM_ID, now.plusDays(2), now.plusDays(3)));
+        index.invalidate(ITEM_ID);
+
+        assertTrue(index.isFree(ITEM_ID, now.plusDays(2), now.plusDays(3)));
+        verify(bookingRepository, times(2)).findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any());
+
+        BookingIntervalIndex expiring = new BookingIntervalIndex(bookingRepository, Duration.ZERO);
+        expiring.isFree(ITEM_ID, now, now.plusDays(1));
+        expiring.isFree(ITEM_ID, now, now.plusDays(1));
+        verify(bookingRepository, times(4)).findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("evictExpired снимает закончившиеся интервалы и вещи без бронирований")
+    void evictExpiredWhenIntervalsEnded() {
+        Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+        LocalDateTime start = LocalDateTime.now(clock);
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, Duration.ofDays(1),
+                Clock.offset(clock, Duration.ofDays(5)));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(booking(10L, start.plusDays(2), start.plusDays(4))));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(2L), anyCollection(), any()))
+                .thenReturn(List.of());
+
+        index.isFree(ITEM_ID, start, start.plusDays(1));
+        index.isFree(2L, start, start.plusDays(1));
+        index.evictExpired();
+
+        assertEquals(0, index.size());
+    }
+
+    private static Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(ITEM_ID).build())
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -10,9 +10,11 @@ import org.springframework.boot.test.json.JsonContent;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapperDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -34,8 +36,8 @@ class BookingDtoTest {
                 .start(start)
                 .end(end)
                 .status(BookingStatus.WAITING)
-                .item(Item.builder()
-                        .owner(User.builder()
+                .item(ItemDto.builder()
+                        .owner(UserDto.builder()
                                 .id(1L)
                                 .name("name")
                                 .email("email@mail.ru")
@@ -46,7 +48,7 @@ class BookingDtoTest {
                         .available(true)
                         .requestId(1L)
                         .build())
-                .booker(User.builder()
+                .booker(UserDto.builder()
                         .id(1L)
                         .name("name")
                         .email("email@mail.ru")
@@ -63,6 +65,9 @@ class BookingDtoTest {
         assertThat(result).extractingJsonPathNumberValue("$.item.owner.id").isEqualTo(1);
         assertThat(result).extractingJsonPathStringValue("$.item.owner.name").isEqualTo("name");
         assertThat(result).extractingJsonPathStringValue("$.item.owner.email").isEqualTo("email@mail.ru");
+        assertThat(result).doesNotHaveJsonPath("$.item.lastBooking");
+        assertThat(result).doesNotHaveJsonPath("$.item.nextBooking");
+        assertThat(result).doesNotHaveJsonPath("$.item.comments");
         assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(1);
         assertThat(result).extractingJsonPathStringValue("$.booker.name").isEqualTo("name");
         assertThat(result).extractingJsonPathStringValue("$.booker.email").isEqualTo("email@mail.ru");
@@ -88,7 +93,7 @@ class BookingDtoTest {
         assertThat(bookingDto.getItem().getId()).isEqualTo(1);
         assertThat(bookingDto.getItem().getName()).isEqualTo("name");
         assertThat(bookingDto.getItem().getDescription()).isEqualTo("description");
-        assertThat(bookingDto.getItem().isAvailable()).isTrue();
+        assertThat(bookingDto.getItem().getAvailable()).isTrue();
         assertThat(bookingDto.getItem().getRequestId()).isEqualTo(1);
         assertThat(bookingDto.getBooker()).isNotNull();
         assertThat(bookingDto.getBooker().getId()).isEqualTo(1);
@@ -113,4 +118,23 @@ class BookingDtoTest {
                 .build();
         Assertions.assertEquals(expected, BookingMapperDto.bookingItemResponseDto(booking));
     }
+
+    @Test
+    void bookingViewToBookingDtoTest() {
+        BookingView view = new BookingView(1L, LocalDateTime.MIN, LocalDateTime.MAX, BookingStatus.APPROVED,
+                2L, "item", "description", true, 4L,
+                5L, "owner", "owner@mail.ru",
+                3L, "bbb", "123@mail.ru");
+
+        BookingDto bookingDto = BookingMapperDto.toBookingDto(view);
+
+        assertThat(bookingDto.getId()).isEqualTo(1L);
+        assertThat(bookingDto.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingDto.getItem().getId()).isEqualTo(2L);
+        assertThat(bookingDto.getItem().getAvailable()).isTrue();
+        assertThat(bookingDto.getItem().getRequestId()).isEqualTo(4L);
+        assertThat(bookingDto.getItem().getOwner().getEmail()).isEqualTo("owner@mail.ru");
+        assertThat(bookingDto.getBooker().getId()).isEqualTo(3L);
+        assertThat(bookingDto.getBooker().getName()).isEqualTo("bbb");
+    }
 }
\ No newline at end of file
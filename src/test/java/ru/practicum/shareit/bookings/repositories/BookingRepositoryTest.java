@@ -0,0 +1,233 @@
+package ru.practicum.shareit.bookings.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.booking.repositories.BookingSpecifications;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.Utility;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingRepositoryTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+    private User booker;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void init() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = entityManager.persist(User.builder()
+                .name("owner")
+                .email("owner@mail.com")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .name("booker")
+                .email("booker@mail.com")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("item")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        persistBooking(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        persistBooking(item, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        persistBooking(item, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        persistBooking(item, now.plusDays(4), now.plusDays(5), BookingStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void byRoleAndState_whenBookerAll_thenReturnAllSortedByStartDesc() {
+        Page<Booking> bookings = find(BookingRole.BOOKER, booker.getId(), BookingState.ALL);
+
+        assertEquals(4, bookings.getTotalElements());
+        assertTrue(bookings.getContent().get(0).getStart().isAfter(bookings.getContent().get(1).getStart()));
+    }
+
+    @Test
+    void byRoleAndState_whenOwnerAll_thenReturnAll() {
+        assertEquals(4, find(BookingRole.OWNER, owner.getId(), BookingState.ALL).getTotalElements());
+    }
+
+    @Test
+    void byRoleAndState_whenOtherUser_thenReturnEmpty() {
+        assertEquals(0, find(BookingRole.OWNER, booker.getId(), BookingState.ALL).getTotalElements());
+        assertEquals(0, find(BookingRole.BOOKER, owner.getId(), BookingState.ALL).getTotalElements());
+    }
+
+    @Test
+    void byRoleAndState_whenTimeStates_thenFilterByNow() {
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.OWNER ? owner.getId() : booker.getId();
+            assertEquals(1, find(role, userId, BookingState.PAST).getTotalElements());
+            assertEquals(1, find(role, userId, BookingState.CURRENT).getTotalElements());
+            assertEquals(2, find(role, userId, BookingState.FUTURE).getTotalElements());
+        }
+    }
+
+    @Test
+    void byRoleAndState_whenStatusStates_thenFilterByStatus() {
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.OWNER ? owner.getId() : booker.getId();
+            assertEquals(BookingStatus.WAITING,
+                    find(role, userId, BookingState.WAITING).getContent().get(0).getStatus());
+            assertEquals(BookingStatus.REJECTED,
+                    find(role, userId, BookingState.REJECTED).getContent().get(0).getStatus());
+        }
+    }
+
+    @Test
+    void byRoleAndState_whenPaged_thenCountMatchesAllRows() {
+        Page<Booking> bookings = bookingRepository.findAll(
+                BookingSpecifications.byRoleAndState(BookingRole.OWNER, owner.getId(), BookingState.FUTURE, now),
+                Utility.paginationWithoutSort(0, 1));
+
+        assertEquals(1, bookings.getContent().size());
+        assertEquals(2, bookings.getTotalElements());
+        assertEquals("owner", bookings.getContent().get(0).getItem().getOwner().getName());
+        assertEquals("booker", bookings.getContent().get(0).getBooker().getName());
+    }
+
+    @Test
+    void findSlice_whenMoreRowsExist_thenHasNextWithoutCount() {
+        Specification<Booking> all = BookingSpecifications.byRoleAndState(BookingRole.BOOKER, booker.getId(),
+                BookingState.ALL, now);
+
+        Slice<BookingView> first = bookingRepository.findSlice(all, Utility.paginationWithoutSort(0, 3));
+        Slice<BookingView> last = bookingRepository.findSlice(all, Utility.paginationWithoutSort(3, 3));
+
+        assertEquals(3, first.getContent().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, last.getContent().size());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void findSlice_whenUnpaged_thenBoundedByUnpagedLimit() {
+        Specification<Booking> all = BookingSpecifications.byRoleAndState(BookingRole.BOOKER, booker.getId(),
+                BookingState.ALL, now);
+
+        Slice<BookingView> slice = bookingRepository.findSlice(all, Utility.paginationWithoutSort(null, null));
+
+        assertEquals(Utility.UNPAGED_LIMIT, slice.getSize());
+        assertEquals(4, slice.getContent().size());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void count_whenSpecification_thenCountAllRows() {
+        assertEquals(2, bookingRepository.count(BookingSpecifications.byRoleAndState(BookingRole.OWNER,
+                owner.getId(), BookingState.FUTURE, now)));
+    }
+
+    @Test
+    void findTop_whenSeekAfterCursor_thenWalkAllRowsWithoutGaps() {
+        Specification<Booking> all = BookingSpecifications.byRoleAndState(BookingRole.OWNER, owner.getId(),
+                BookingState.ALL, now);
+        List<Long> seen = new ArrayList<>();
+
+        List<BookingView> page = bookingRepository.findTop(all, 3);
+        while (!page.isEmpty()) {
+            page.forEach(booking -> seen.add(booking.getId()));
+            BookingView last = page.get(page.size() - 1);
+            page = bookingRepository.findTop(all.and(BookingSpecifications.after(last.getStart(), last.getId())), 3);
+        }
+
+        assertEquals(4, seen.size());
+        assertEquals(4, seen.stream().distinct().count());
+    }
+
+    @Test
+    void findTop_whenOwnerRole_thenProjectionCarriesItemOwnerAndBooker() {
+        List<BookingView> bookings = bookingRepository.findTop(BookingSpecifications.byRoleAndState(BookingRole.OWNER,
+                owner.getId(), BookingState.WAITING, now), 10);
+
+        assertEquals(1, bookings.size());
+        BookingView view = bookings.get(0);
+        assertEquals(BookingStatus.WAITING, view.getStatus());
+        assertEquals("item", view.getItemName());
+        assertTrue(view.isItemAvailable());
+        assertEquals(owner.getId(), view.getOwnerId());
+        assertEquals("owner@mail.com", view.getOwnerEmail());
+        assertEquals(booker.getId(), view.getBookerId());
+        assertEquals("booker", view.getBookerName());
+    }
+
+    @Test
+    void findByItemIdAndStatusInAndEndAfter_whenInvoked_thenReturnActiveNotFinished() {
+        Long itemId = bookingRepository.findAll().get(0).getItem().getId();
+
+        List<Booking> active = bookingRepository.findByItem_IdAndStatusInAndEndAfter(itemId,
+                EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED), now);
+
+        assertEquals(2, active.size());
+        assertTrue(active.stream().allMatch(booking -> booking.getEnd().isAfter(now)));
+    }
+
+    @Test
+    void updateStatusIfWaiting_whenOwnerAndWaiting_thenUpdateOnceAndBumpVersion() {
+        Booking waiting = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .findFirst()
+                .orElseThrow();
+        entityManager.clear();
+
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waiting.getId(), booker.getId(),
+                BookingStatus.APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfWaiting(waiting.getId(), owner.getId(),
+                BookingStatus.APPROVED));
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waiting.getId(), owner.getId(),
+                BookingStatus.REJECTED));
+
+        Booking updated = entityManager.find(Booking.class, waiting.getId());
+        assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        assertEquals(waiting.getVersion() + 1, updated.getVersion());
+    }
+
+    private Page<Booking> find(BookingRole role, Long userId, BookingState state) {
+        return bookingRepository.findAll(BookingSpecifications.byRoleAndState(role, userId, state, now),
+                Utility.paginationWithoutSort(null, null));
+    }
+
+    private void persistBooking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.bookings.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingExpiryService;
+import ru.practicum.shareit.booking.service.BookingExpiryServiceImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({BookingExpiryServiceImpl.class, BookingIntervalIndex.class})
+class BookingExpiryServiceImplTest {
+    @Autowired
+    private BookingExpiryService expiryService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Item item;
+    private User booker;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void init() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User owner = entityManager.persist(User.builder().name("owner").email("owner@mail.com").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@mail.com").build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("item")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    @DisplayName("cancelStartedWaiting отменяет только начавшиеся WAITING-бронирования")
+    void cancelStartedWaiting_whenMixedBookings_thenCancelOnlyStartedWaiting() {
+        Booking started = persistBooking(now.minusDays(2), now.minusDays(1), BookingStatus.WAITING);
+        Booking current = persistBooking(now.minusHours(1), now.plusHours(1), BookingStatus.WAITING);
+        Booking future = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        Booking approved = persistBooking(now.minusDays(4), now.minusDays(3), BookingStatus.APPROVED);
+
+        List<Long> canceled = expiryService.cancelStartedWaiting(0L, 10);
+
+        assertEquals(List.of(started.getId(), current.getId()), canceled);
+        assertEquals(BookingStatus.CANCELED, status(started));
+        assertEquals(BookingStatus.CANCELED, status(current));
+        assertEquals(BookingStatus.WAITING, status(future));
+        assertEquals(BookingStatus.APPROVED, status(approved));
+    }
+
+    @Test
+    @DisplayName("cancelStartedWaiting обрабатывает пачку не больше batchSize начиная после afterId")
+    void cancelStartedWaiting_whenBatchSizeReached_thenContinueFromLastId() {
+        for (int i = 0; i < 3; i++) {
+            persistBooking(now.minusDays(10 - i), now.minusDays(9 - i), BookingStatus.WAITING);
+        }
+
+        List<Long> first = expiryService.cancelStartedWaiting(0L, 2);
+        List<Long> second = expiryService.cancelStartedWaiting(first.get(1), 2);
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertTrue(second.get(0) > first.get(1));
+        assertTrue(expiryService.cancelStartedWaiting(0L, 2).isEmpty());
+    }
+
+    private BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -6,10 +6,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingListDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -17,18 +26,29 @@ import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemMapperDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
+import ru.practicum.shareit.user.dto.UserMapperDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.utility.Utility;
 
+import javax.validation.Validation;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.user.cache.UserCacheTest.userCache;
 
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
@@ -40,6 +60,8 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemBookingPointersService pointersService;
     private BookingDto bookingDto;
     private Booking booking;
     private Item item;
@@ -49,7 +71,9 @@ class BookingServiceImplTest {
 
     @BeforeEach
     void init() {
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, userCache(userRepository), itemRepository,
+                new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(10)), pointersService,
+                Validation.buildDefaultValidatorFactory().getValidator());
         user = User.builder().id(ID).build();
         item = Item.builder()
                 .id(ID)
@@ -58,11 +82,11 @@ class BookingServiceImplTest {
                 .build();
         bookingDto = BookingDto.builder()
                 .id(ID)
-                .booker(user)
+                .booker(UserMapperDto.toUserDto(user))
                 .status(BookingStatus.WAITING)
                 .end(LocalDateTime.now().plusDays(1))
                 .start(LocalDateTime.now())
-                .item(item)
+                .item(ItemMapperDto.toItemDto(item))
                 .build();
         booking = Booking.builder()
                 .id(ID)
@@ -85,7 +109,6 @@ class BookingServiceImplTest {
     void getBookingByIdAndBookerAllOkeyTest() {
         when(userRepository.existsById(eq(ID))).thenReturn(true);
         when(bookingRepository.getBookingFull(ID)).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(ID)).thenReturn(Optional.of(item));
 
         BookingDto result = bookingService.getBookingByIdAndBooker(ID, user.getId());
 
@@ -96,25 +119,10 @@ class BookingServiceImplTest {
         assertEquals(bookingDto.getStart().getSecond(), result.getStart().getSecond());
         assertEquals(bookingDto.getItem().getId(), result.getItem().getId());
         verify(bookingRepository, times(1)).getBookingFull(ID);
-        verify(itemRepository, times(1)).findById(ID);
+        verify(itemRepository, never()).findById(ID);
         verify(userRepository, times(1)).existsById(ID);
     }
 
-    @Test
-    @DisplayName("getBookingById неверный itemId 404 status")
-    void getBookingByIdAndBookerItemNotFound() {
-        when(userRepository.existsById(eq(ID))).thenReturn(true);
-        when(bookingRepository.getBookingFull(ID)).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(ID)).thenReturn(Optional.empty());
-        EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
-                () -> bookingService.getBookingByIdAndBooker(ID, user.getId()));
-
-        assertEquals("Item не существует", entityNotFoundException.getMessage());
-        verify(bookingRepository, times(1)).getBookingFull(ID);
-        verify(userRepository, times(1)).existsById(ID);
-        verify(itemRepository, times(1)).findById(ID);
-    }
-
     @Test
     @DisplayName(" getBookingById неверный BookingID 404 status")
     void getBookingByIdBookingNotFound() {
@@ -156,19 +164,18 @@ class BookingServiceImplTest {
                 .status(BookingStatus.WAITING)
                 .end(LocalDateTime.now().plusDays(1))
                 .start(LocalDateTime.now())
-                .item(item)
+                .item(badItem)
                 .build();
 
         when(userRepository.existsById(eq(ID))).thenReturn(true);
         when(bookingRepository.getBookingFull(ID)).thenReturn(Optional.of(badBooking));
-        when(itemRepository.findById(ID)).thenReturn(Optional.of(badItem));
 
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
                 () -> bookingService.getBookingByIdAndBooker(ID, ID));
 
         assertEquals("Некорректный запрос на бронирование", entityNotFoundException.getMessage());
         verify(bookingRepository, times(1)).getBookingFull(ID);
-        verify(itemRepository, times(1)).findById(ID);
+        verify(itemRepository, never()).findById(ID);
         verify(userRepository, times(1)).existsById(ID);
     }
 
@@ -186,18 +193,17 @@ class BookingServiceImplTest {
                 .status(BookingStatus.WAITING)
                 .end(LocalDateTime.now().plusDays(1))
                 .start(LocalDateTime.now())
-                .item(item)
+                .item(badItem)
                 .build();
 
         when(userRepository.existsById(eq(ID))).thenReturn(true);
         when(bookingRepository.getBookingFull(ID)).thenReturn(Optional.of(badBooking));
-        when(itemRepository.findById(ID)).thenReturn(Optional.of(badItem));
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
                 () -> bookingService.getBookingByIdAndBooker(ID, ID));
 
         assertEquals("Некорректный запрос на бронирование", entityNotFoundException.getMessage());
         verify(bookingRepository, times(1)).getBookingFull(ID);
-        verify(itemRepository, times(1)).findById(ID);
+        verify(itemRepository, never()).findById(ID);
         verify(userRepository, times(1)).existsById(ID);
     }
 
@@ -212,7 +218,7 @@ class BookingServiceImplTest {
 
         when(itemRepository.findByIdFull(ID)).thenReturn(Optional.of(createItem));
         when(userRepository.findById(ID)).thenReturn(Optional.of(user));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
 
         BookingDto result = bookingService.create(ID, bookingCreateDto);
 
@@ -222,11 +228,134 @@ class BookingServiceImplTest {
         assertEquals(bookingDto.getEnd().getSecond(), result.getEnd().getSecond());
         assertEquals(bookingDto.getStart().getSecond(), result.getStart().getSecond());
         assertEquals(bookingDto.getItem().getId(), result.getItem().getId());
-        verify(bookingRepository, times(1)).save(any());
+        verify(bookingRepository, times(1)).saveAndFlush(any());
         verify(itemRepository, times(1)).findByIdFull(ID);
         verify(userRepository, times(1)).findById(ID);
     }
 
+    @Test
+    @DisplayName("createAll результаты по каждой записи пакета")
+    void createAllReturnResultPerEntry() {
+        Item createItem = Item.builder()
+                .id(ID)
+                .available(true)
+                .owner(User.builder().id(2L).build())
+                .build();
+        Item ownItem = Item.builder()
+                .id(3L)
+                .available(true)
+                .owner(user)
+                .build();
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto valid = new BookingCreateDto(ID, start, start.plusDays(1));
+        BookingCreateDto unknownItem = new BookingCreateDto(5L, start, start.plusDays(1));
+        BookingCreateDto own = new BookingCreateDto(3L, start, start.plusDays(1));
+        BookingCreateDto overlapping = new BookingCreateDto(ID, start.plusHours(1), start.plusDays(2));
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllFullByIdIn(anyCollection())).thenReturn(List.of(createItem, ownItem));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResultDto> results;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            results = bookingService.createAll(ID, List.of(valid, unknownItem, own, overlapping));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(201, 404, 404, 409),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals(ID, results.get(0).getBooking().getItem().getId());
+        assertEquals("Item не существует", results.get(1).getError());
+        verify(itemRepository, times(1)).findAllFullByIdIn(anyCollection());
+        verify(bookingRepository, times(1)).saveAll(argThat(bookings -> ((List<?>) bookings).size() == 1));
+        verify(bookingRepository, times(1)).flush();
+    }
+
+    @Test
+    @DisplayName("createAll проверяет записи теми же ограничениями, что и одиночный create")
+    void createAllWhenEntryViolatesDtoConstraints() {
+        Item createItem = Item.builder()
+                .id(ID)
+                .available(true)
+                .owner(User.builder().id(2L).build())
+                .build();
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto past = new BookingCreateDto(ID, start.minusDays(1), start.plusDays(1));
+        BookingCreateDto withoutEnd = new BookingCreateDto(ID, start, null);
+        BookingCreateDto reversed = new BookingCreateDto(ID, start.plusDays(1), start);
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllFullByIdIn(anyCollection())).thenReturn(List.of(createItem));
+
+        List<BookingBatchResultDto> results = bookingService.createAll(ID, List.of(past, withoutEnd, reversed));
+
+        assertEquals(List.of(400, 400, 400),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        assertTrue(results.get(0).getError().startsWith("start"));
+        assertTrue(results.get(1).getError().startsWith("end"));
+        assertEquals("Некорректное время бронирования", results.get(2).getError());
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("createAll нарушение ограничения БД откатывает весь пакет")
+    void createAllWhenFlushViolatesConstraint() {
+        Item createItem = Item.builder()
+                .id(ID)
+                .available(true)
+                .owner(User.builder().id(2L).build())
+                .build();
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        BookingCreateDto first = new BookingCreateDto(ID, start, start.plusDays(1));
+        BookingCreateDto second = new BookingCreateDto(ID, start.plusDays(2), start.plusDays(3));
+
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllFullByIdIn(anyCollection())).thenReturn(List.of(createItem));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("bookings_no_overlap")).when(bookingRepository).flush();
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookingService.createAll(ID, List.of(first, second)));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(bookingRepository, times(1)).saveAll(argThat(bookings -> ((List<?>) bookings).size() == 2));
+    }
+
+    @Test
+    @DisplayName("createAll слишком большой пакет")
+    void createAllTooLargeBatch() {
+        List<BookingCreateDto> batch = Collections.nCopies(501, bookingCreateDto);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookingService.createAll(ID, batch));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("create пересечение с активным бронированием")
+    void createOverlapsActiveBooking() {
+        Item createItem = Item.builder()
+                .id(ID)
+                .available(true)
+                .owner(User.builder().id(2L).build())
+                .build();
+
+        when(itemRepository.findByIdFull(ID)).thenReturn(Optional.of(createItem));
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(ID), anyCollection(), any()))
+                .thenReturn(List.of(booking));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookingService.create(ID, bookingCreateDto));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
+    }
+
     @Test
     @DisplayName("create user не найден")
     void createUserNotFound() {
@@ -243,7 +372,7 @@ class BookingServiceImplTest {
                 () -> bookingService.create(ID, bookingCreateDto));
 
         assertEquals("User не найден", entityNotFoundException.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         verify(itemRepository, times(1)).findByIdFull(ID);
         verify(userRepository, times(1)).findById(ID);
     }
@@ -257,7 +386,7 @@ class BookingServiceImplTest {
                 () -> bookingService.create(ID, bookingCreateDto));
 
         assertEquals("Item не существует", entityNotFoundException.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         verify(userRepository, times(0)).findById(ID);
         verify(itemRepository, times(1)).findByIdFull(ID);
     }
@@ -277,7 +406,7 @@ class BookingServiceImplTest {
                 () -> bookingService.create(ID, bookingCreateDto));
 
         assertEquals("400 BAD_REQUEST \"Item недоступен\"", responseStatusException.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         verify(itemRepository, times(1)).findByIdFull(ID);
         verify(userRepository, times(1)).findById(ID);
     }
@@ -297,7 +426,7 @@ class BookingServiceImplTest {
                 () -> bookingService.create(ID, bookingCreateDto));
 
         assertEquals("Недостаточно прав для создания Booking", entityNotFoundException.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         verify(itemRepository, times(1)).findByIdFull(ID);
         verify(userRepository, times(1)).findById(ID);
     }
@@ -324,7 +453,7 @@ class BookingServiceImplTest {
                 () -> bookingService.create(ID, badBooking));
 
         assertEquals("400 BAD_REQUEST \"Некорректное время бронирования\"", responseStatusException.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         verify(itemRepository, times(1)).findByIdFull(ID);
         verify(userRepository, times(1)).findById(ID);
     }
@@ -348,25 +477,17 @@ class BookingServiceImplTest {
                 .item(itemPatch)
                 .build();
 
-        Booking bookingSaved = Booking.builder()
-                .id(ID)
-                .booker(userPatch)
-                .status(BookingStatus.REJECTED)
-                .end(LocalDateTime.now().plusDays(1))
-                .start(LocalDateTime.now())
-                .item(itemPatch)
-                .build();
-
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.of(bookingPatch));
-        when(bookingRepository.save(any())).thenReturn(bookingSaved);
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
+        when(bookingRepository.updateStatusIfWaiting(ID, ID, BookingStatus.REJECTED)).thenReturn(1);
 
         BookingDto result = bookingService.update(ID, ID, Boolean.FALSE);
 
         assertEquals(BookingStatus.REJECTED, result.getStatus());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(1)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, times(1)).updateStatusIfWaiting(ID, ID, BookingStatus.REJECTED);
+        verify(pointersService, never()).refresh(any());
     }
 
     @Test
@@ -388,25 +509,17 @@ class BookingServiceImplTest {
                 .item(itemPatch)
                 .build();
 
-        Booking bookingSaved = Booking.builder()
-                .id(ID)
-                .booker(userPatch)
-                .status(BookingStatus.APPROVED)
-                .end(LocalDateTime.now().plusDays(1))
-                .start(LocalDateTime.now())
-                .item(itemPatch)
-                .build();
-
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.of(bookingPatch));
-        when(bookingRepository.save(any())).thenReturn(bookingSaved);
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
+        when(bookingRepository.updateStatusIfWaiting(ID, ID, BookingStatus.APPROVED)).thenReturn(1);
 
         BookingDto result = bookingService.update(ID, ID, Boolean.TRUE);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(1)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, times(1)).updateStatusIfWaiting(ID, ID, BookingStatus.APPROVED);
+        verify(pointersService, times(1)).refresh(itemPatch.getId());
     }
 
     @Test
@@ -426,14 +539,14 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.of(bookingPatch));
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
         ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
                 () -> bookingService.update(ID, ID, Boolean.FALSE));
 
         assertEquals("400 BAD_REQUEST \"Данный User не может редактировать Booking\"", responseStatusException.getMessage());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any());
     }
 
     @Test
@@ -449,14 +562,14 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.of(bookingPatch));
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
                 () -> bookingService.update(ID, ID, Boolean.FALSE));
 
         assertEquals("данный User не может редактировать Booking", exception.getMessage());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any());
     }
 
     @Test
@@ -472,51 +585,80 @@ class BookingServiceImplTest {
                 .build();
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.of(bookingPatch));
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
         ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
                 () -> bookingService.update(ID, ID, Boolean.FALSE));
 
         assertEquals("400 BAD_REQUEST \"Booking не находится в статусе WAITING\"", responseStatusException.getMessage());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any());
     }
 
     @Test
     @DisplayName("update неверный Booking")
     void updateBookingNotFound() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.getBookingFull(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of());
 
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
                 () -> bookingService.update(ID, ID, Boolean.FALSE));
 
         assertEquals("Booking не найден", entityNotFoundException.getMessage());
         verify(userRepository, times(1)).existsById(any());
-        verify(bookingRepository, times(1)).getBookingFull(any());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(1)).findTop(any(), eq(1));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("update статус уже изменён параллельным запросом")
+    void updateBookingConcurrentTransition() {
+        User userPatch = User.builder().id(4L).email("email@email.com").name("name").build();
+        Item itemPatch = Item.builder().id(1L).available(true)
+                .owner(User.builder()
+                        .id(ID)
+                        .email("email2@email.com").name("name2")
+                        .build())
+                .build();
+        Booking bookingPatch = Booking.builder()
+                .id(ID)
+                .booker(userPatch)
+                .status(BookingStatus.WAITING)
+                .end(LocalDateTime.now().plusDays(1))
+                .start(LocalDateTime.now())
+                .item(itemPatch)
+                .build();
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findTop(any(), eq(1))).thenReturn(List.of(view(bookingPatch)));
+        when(bookingRepository.updateStatusIfWaiting(ID, ID, BookingStatus.APPROVED)).thenReturn(0);
+        ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+                () -> bookingService.update(ID, ID, Boolean.TRUE));
+
+        assertEquals("400 BAD_REQUEST \"Booking не находится в статусе WAITING\"", responseStatusException.getMessage());
+        verify(pointersService, never()).refresh(any());
     }
 
     @Test
     @DisplayName("deleteBookingById успешное удаление")
     void deleteBookingByIdWhenItExist() {
-        when(bookingRepository.existsById(eq(1L))).thenReturn(true);
+        when(bookingRepository.findById(eq(1L))).thenReturn(Optional.of(booking));
 
         bookingService.deleteBookingById(ID);
 
-        verify(bookingRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, times(1)).deleteById(anyLong());
     }
 
     @Test
     @DisplayName("deleteBookingById booking не найден")
     void deleteBookingByBookingNotExist() {
-        when(bookingRepository.existsById(eq(ID))).thenReturn(false);
+        when(bookingRepository.findById(eq(ID))).thenReturn(Optional.empty());
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
                 () -> bookingService.deleteBookingById(ID));
 
         assertEquals("Booking не существует.", entityNotFoundException.getMessage());
-        verify(bookingRepository, times(1)).existsById(anyLong());
+        verify(bookingRepository, times(1)).findById(anyLong());
         verify(bookingRepository, times(0)).deleteById(anyLong());
     }
 
@@ -526,14 +668,14 @@ class BookingServiceImplTest {
         BookingState bookingState = BookingState.PAST;
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findByBookerIdAndEndLessThanOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdAndEndLessThanOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -544,14 +686,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByBookerIdAndStartLessThanAndEndGreaterThanOrderByStartDesc(anyLong(), any(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStartLessThanAndEndGreaterThanOrderByStartDesc(anyLong(), any(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -562,14 +704,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByBookerIdAndStartGreaterThanOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStartGreaterThanOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -580,14 +722,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -598,14 +740,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -616,14 +758,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByBookerIdOrderByStartDesc(anyLong(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getUserBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByBookerIdOrderByStartDesc(anyLong(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -637,7 +779,7 @@ class BookingServiceImplTest {
 
         assertEquals("400 BAD_REQUEST \"Unknown state: " + state + "\"", responseStatusException.getMessage());
         verify(bookingRepository, times(0))
-                .findByBookerIdOrderByStartDesc(anyLong(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -648,14 +790,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerAndStartLessThanAndEndGreaterThanOrderByStartDesc(anyLong(), any(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerAndStartLessThanAndEndGreaterThanOrderByStartDesc(anyLong(), any(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -666,14 +808,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerAndEndLessThanOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerAndEndLessThanOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -684,14 +826,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerAndStartGreaterThanOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerAndStartGreaterThanOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -702,14 +844,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerAndStatusOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerAndStatusOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -720,14 +862,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerAndStatusOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerAndStatusOrderByStartDesc(anyLong(), any(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -738,14 +880,14 @@ class BookingServiceImplTest {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(bookingRepository
-                .findByItemOwnerOrderByStartDesc(anyLong(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+                .findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view(booking))));
 
         List<BookingDto> bookings = bookingService.getOwnerBookings(ID, bookingState.toString(), 0, 2);
 
         assertEquals(1, bookings.size());
         verify(bookingRepository, times(1))
-                .findByItemOwnerOrderByStartDesc(anyLong(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
 
@@ -760,7 +902,84 @@ class BookingServiceImplTest {
 
         assertEquals("400 BAD_REQUEST \"Unknown state: " + state + "\"", responseStatusException.getMessage());
         verify(bookingRepository, times(0))
-                .findByItemOwnerOrderByStartDesc(anyLong(), any());
+                .findSlice(any(), any());
         verify(userRepository, times(1)).existsById(anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getUserBookingsByCursor есть следующая страница")
+    void getUserBookingsByCursorReturnNextCursor() {
+        Booking second = Booking.builder()
+                .id(2L)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(booking.getStart().minusDays(1))
+                .end(booking.getEnd())
+                .item(item)
+                .build();
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findTop(any(), eq(2))).thenReturn(List.of(view(booking), view(second)));
+
+        BookingListDto result = bookingService.getUserBookingsByCursor(ID, "ALL", "", 1);
+
+        assertEquals(1, result.getBookings().size());
+        assertEquals(ID, result.getBookings().get(0).getId());
+        BookingCursor next = BookingCursor.decode(result.getNextCursor());
+        assertEquals(ID, next.getId());
+        assertEquals(booking.getStart(), next.getStart());
+    }
+
+    @Test
+    @DisplayName("getOwnerBookingsByCursor последняя страница")
+    void getOwnerBookingsByCursorLastPage() {
+        String cursor = BookingCursor.of(view(booking)).encode();
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findTop(any(), eq(Utility.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(view(booking)));
+
+        BookingListDto result = bookingService.getOwnerBookingsByCursor(ID, "FUTURE", cursor, null);
+
+        assertEquals(1, result.getBookings().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("getOwnerBookingsByCursor некорректный cursor")
+    void getOwnerBookingsByCursorInvalidCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+                () -> bookingService.getOwnerBookingsByCursor(ID, "ALL", "broken", 1));
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseStatusException.getStatus());
+        verify(bookingRepository, times(0)).findTop(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("countUserBookings считает по той же спецификации")
+    void countUserBookingsReturnTotal() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.count(any(Specification.class))).thenReturn(42L);
+
+        assertEquals(42L, bookingService.countUserBookings(ID, "PAST"));
+        verify(bookingRepository, times(1)).count(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("countOwnerBookings несуществующий статус")
+    void countOwnerBookingsInvalidState() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        assertThrows(ResponseStatusException.class, () -> bookingService.countOwnerBookings(ID, "INVALID"));
+        verify(bookingRepository, times(0)).count(any(Specification.class));
+    }
+
+    private static BookingView view(Booking booking) {
+        Item item = booking.getItem();
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                item.getId(), item.getName(), item.getDescription(), item.isAvailable(), item.getRequestId(),
+                item.getOwner().getId(), item.getOwner().getName(), item.getOwner().getEmail(),
+                booking.getBooker().getId(), booking.getBooker().getName(), booking.getBooker().getEmail());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.comments.dto.CommentMapperDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.comments.dto.CommentView;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.user.model.User;
 
@@ -16,6 +17,7 @@ public class CommentMapperTest {
             .author(new User(1L, "123", "123@mail.ru"))
             .created(LocalDateTime.MAX)
             .build();
+    private final CommentView commentView = new CommentView(1L, 2L, null, "123", LocalDateTime.MAX);
     private final CommentResponseDto commentResponseDto = CommentResponseDto.builder()
             .id(1L)
             .created(LocalDateTime.MAX)
@@ -28,9 +30,15 @@ public class CommentMapperTest {
         Assertions.assertEquals(commentResponseDto, CommentMapperDto.toCommentResponseDto(comment));
     }
 
+    @Test
+    void toCommentResponseDtoFromViewTest() {
+
+        Assertions.assertEquals(commentResponseDto, CommentMapperDto.toCommentResponseDto(commentView));
+    }
+
     @Test
     void toListCommentTest() {
-        List<Comment> comments = List.of(comment);
+        List<CommentView> comments = List.of(commentView);
         List<CommentResponseDto> responseDtos = List.of(commentResponseDto);
         Assertions.assertArrayEquals(responseDtos.toArray(), CommentMapperDto.toListComment(comments).toArray());
     }
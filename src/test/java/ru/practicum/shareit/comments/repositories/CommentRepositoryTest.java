@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.comments.dto.CommentView;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -52,14 +53,23 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void getCommentsByItem_idOrderByCreatedDesc_whenInvoked_thenListHaveOneComment() {
-        List<Comment> comments = commentRepository.getCommentsByItem_idOrderByCreatedDesc(1L);
+    void findViewsByItemId_whenInvoked_thenListHaveOneComment() {
+        List<CommentView> comments = commentRepository.findViewsByItemId(1L);
         assertEquals(1, comments.size());
+        assertEquals(1L, comments.get(0).getItemId());
     }
 
     @Test
-    void getCommentsByItem_idOrderByCreatedDesc_whenInvokedIdNotExist_thenListEmpty() {
-        List<Comment> comments = commentRepository.getCommentsByItem_idOrderByCreatedDesc(0L);
+    void findViewsByItemId_whenInvokedIdNotExist_thenListEmpty() {
+        List<CommentView> comments = commentRepository.findViewsByItemId(0L);
         assertEquals(0, comments.size());
     }
+
+    @Test
+    void findViewsByItemIdIn_whenInvoked_thenAuthorNameSelected() {
+        List<CommentView> comments = commentRepository.findViewsByItemIdIn(List.of(1L, 0L));
+        assertEquals(1, comments.size());
+        assertEquals("1", comments.get(0).getAuthorName());
+        assertEquals("1", comments.get(0).getText());
+    }
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestOutputDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -28,7 +28,7 @@ public class ItemRequestOutputDTOTest {
         ItemRequestOutputDto itemRequestDto = ItemRequestOutputDto.builder()
                 .id(1L)
                 .created(created)
-                .items(List.of(ItemDto.builder().owner(User.builder()
+                .items(List.of(ItemDto.builder().owner(UserDto.builder()
                                 .id(1L)
                                 .name("name")
                                 .email("email@mail.ru")
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.itemRequest.service;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestOutputDto;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.monitoring.SqlMonitoringConfig;
+import ru.practicum.shareit.monitoring.SqlStatementCounter;
+import ru.practicum.shareit.monitoring.SqlStatementRecorder;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.SqlStatements;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "shareit.hibernate.statistics.enabled=true")
+@Import({ItemRequestServiceImpl.class, UserCache.class, SqlMonitoringConfig.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ItemRequestServiceImplStatementsTest {
+    private static final int REQUESTS = 5;
+    private static final int ITEMS_PER_REQUEST = 2;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    private User requestor;
+    private User viewer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        requestor = entityManager.persist(User.builder().name("requestor").email("requestor@mail.com").build());
+        viewer = entityManager.persist(User.builder().name("viewer").email("viewer@mail.com").build());
+        User owner = entityManager.persist(User.builder().name("owner").email("owner@mail.com").build());
+
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = entityManager.persist(ItemRequest.builder()
+                    .requestorId(requestor.getId())
+                    .description("request " + i)
+                    .created(LocalDateTime.now())
+                    .build());
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                entityManager.persist(Item.builder()
+                        .name("item " + i + j)
+                        .description("item")
+                        .available(true)
+                        .owner(owner)
+                        .requestId(request.getId())
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getItemRequest_whenManyRequests_thenItemsLoadedInOneStatement() {
+        List<ItemRequestOutputDto> requests = itemRequestService.getItemRequest(requestor.getId());
+        requests.forEach(request -> request.getItems().forEach(item -> item.getOwner().getName()));
+
+        assertEquals(REQUESTS, requests.size());
+        assertEquals(ITEMS_PER_REQUEST, requests.get(0).getItems().size());
+        // existsById + список запросов + вещи всех запросов
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getItemRequest_whenManyRequests_thenStatementsDoNotGrowWithRequests() {
+        List<ItemRequestOutputDto> requests = new ArrayList<>();
+
+        SqlStatementCounter counter = SqlStatements.capture(recorder,
+                () -> requests.addAll(itemRequestService.getItemRequest(requestor.getId())));
+
+        assertEquals(REQUESTS, requests.size());
+        // existsById + список запросов + вещи всех запросов
+        SqlStatements.assertSelectsAtMost(counter, 3);
+        assertEquals(counter.getTotal(), counter.getCount(QueryType.SELECT));
+    }
+
+    @Test
+    void getItemRequestsByOtherUsers_whenPage_thenItemsLoadedInOneStatement() {
+        List<ItemRequestOutputDto> requests = itemRequestService.getItemRequestsByOtherUsers(viewer.getId(), 0, 10);
+        requests.forEach(request -> request.getItems().forEach(item -> item.getOwner().getName()));
+
+        assertEquals(REQUESTS, requests.size());
+        requests.forEach(request -> assertEquals(ITEMS_PER_REQUEST, request.getItems().size()));
+        // existsById + страница запросов + вещи всех запросов страницы
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -12,7 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestInputDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestOutputDto;
@@ -28,6 +28,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.user.cache.UserCacheTest.userCache;
 
 @ExtendWith(MockitoExtension.class)
 class ItemRequestServiceImplTest {
@@ -47,7 +48,8 @@ class ItemRequestServiceImplTest {
 
     @BeforeEach
     void init() {
-        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userRepository);
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository,
+                userCache(userRepository));
         itemRequestDto = ItemRequestOutputDto.builder()
                 .items(List.of())
                 .id(ID)
@@ -72,12 +74,13 @@ class ItemRequestServiceImplTest {
         when(userRepository.existsById(eq(ID))).thenReturn(true);
         when(itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(eq(ID)))
                 .thenReturn(List.of(itemRequest));
-        when(itemRepository.findAllByRequestId(eq(ID))).thenReturn(List.of());
+        when(itemRepository.findViewsByRequestIdIn(eq(List.of(ID)))).thenReturn(List.of());
 
 
         List<ItemRequestOutputDto> itemRequests = itemRequestService.getItemRequest(ID);
 
         assertEquals(1, itemRequests.size());
+        verify(itemRepository, times(1)).findViewsByRequestIdIn(List.of(ID));
         verify(userRepository, times(1)).existsById(ID);
         verify(itemRequestRepository, times(1))
                 .findAllByRequestorIdOrderByCreatedDesc(ID);
@@ -171,19 +174,15 @@ class ItemRequestServiceImplTest {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setId(itemRequestId);
         itemRequest.setRequestorId(user.getId());
-        Item item1 = new Item();
-        item1.setName("item1");
-        item1.setDescription("description1");
-        Item item2 = new Item();
-        item2.setName("item2");
-        item2.setDescription("description2");
-        List<Item> items = List.of(item1, item2);
+        ItemView item1 = new ItemView(1L, "item1", "description1", true, itemRequestId, 3L, "owner", "owner@mail.ru");
+        ItemView item2 = new ItemView(2L, "item2", "description2", true, itemRequestId, 3L, "owner", "owner@mail.ru");
+        List<ItemView> items = List.of(item1, item2);
 
 
         when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRequestRepository.existsById(itemRequestId)).thenReturn(true);
         when(itemRequestRepository.findById(itemRequestId)).thenReturn(Optional.of(itemRequest));
-        when(itemRepository.findAllByRequestId(itemRequestId)).thenReturn(items);
+        when(itemRepository.findViewsByRequestId(itemRequestId)).thenReturn(items);
 
         ItemRequestOutputDto result = itemRequestService.getItemRequestsByIdOwner(userId, itemRequestId);
 
@@ -199,7 +198,7 @@ class ItemRequestServiceImplTest {
         verify(userRepository, times(1)).existsById(userId);
         verify(itemRequestRepository, times(1)).existsById(itemRequestId);
         verify(itemRequestRepository, times(1)).findById(itemRequestId);
-        verify(itemRepository, times(1)).findAllByRequestId(itemRequestId);
+        verify(itemRepository, times(1)).findViewsByRequestId(itemRequestId);
     }
 
     @Test
@@ -215,7 +214,7 @@ class ItemRequestServiceImplTest {
         verify(userRepository, times(1)).existsById(userId);
         verify(itemRequestRepository, times(0)).existsById(itemRequestId);
         verify(itemRequestRepository, times(0)).findById(itemRequestId);
-        verify(itemRepository, times(0)).findAllByRequestId(itemRequestId);
+        verify(itemRepository, times(0)).findViewsByRequestId(itemRequestId);
     }
 
     @Test
@@ -233,7 +232,7 @@ class ItemRequestServiceImplTest {
         verify(userRepository, times(1)).existsById(userId);
         verify(itemRequestRepository, times(1)).existsById(itemRequestId);
         verify(itemRequestRepository, times(0)).findById(itemRequestId);
-        verify(itemRepository, times(0)).findAllByRequestId(itemRequestId);
+        verify(itemRepository, times(0)).findViewsByRequestId(itemRequestId);
     }
 
     @Test
@@ -250,7 +249,7 @@ class ItemRequestServiceImplTest {
         verify(userRepository, times(1)).existsById(userId);
         verify(itemRequestRepository, times(0)).findAllByRequestorIdNot(userId,
                 Utility.paginationWithoutSort(from, size));
-        verify(itemRepository, times(0)).findAllByRequestId(anyLong());
+        verify(itemRepository, times(0)).findViewsByRequestId(anyLong());
     }
 
     @Test
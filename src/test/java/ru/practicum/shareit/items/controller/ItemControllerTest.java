@@ -12,25 +12,34 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.comments.dto.CommentRequestDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
 import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemListDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {ItemController.class})
@@ -156,6 +165,28 @@ public class ItemControllerTest {
                 .andReturn();
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("readItemAvailability передаёт период в сервис")
+    void readItemAvailabilityWhenInvokedCorrect() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .slots(List.of(new ItemAvailabilitySlotDto(from, to, true)))
+                .build();
+        when(itemService.getAvailability(1L, 1L, from, to)).thenReturn(availability);
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .header(header, 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(availability)));
+    }
+
     @SneakyThrows
     @Test
     @DisplayName("readItemById не существующий User")
@@ -271,7 +302,7 @@ public class ItemControllerTest {
     @Test
     @DisplayName("searchItemsByText text пустой ")
     void searchItemsByTextWhenTextEmpty() {
-        when(itemService.findByText(any())).thenReturn(List.of());
+        when(itemService.findByText(any(), any(), any())).thenReturn(List.of());
 
         mockMvc.perform(get("/items/search")
                         .param("text", "text"))
@@ -281,6 +312,78 @@ public class ItemControllerTest {
                 .andReturn();
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("searchItemsByText с окном ищет только свободные вещи")
+    void searchItemsByTextWhenWindow() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 6, 10, 0);
+        when(itemService.findByText("drill", start, end, null, null)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-06T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
+        verify(itemService, never()).findByText(any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("searchItemsByText по cursor отдаёт следующий cursor в заголовке")
+    void searchItemsByTextWhenCursor() {
+        when(itemService.findByTextByCursor(eq("text"), eq(""), eq(1)))
+                .thenReturn(ItemListDto.builder().items(List.of(itemDto)).nextCursor("next").build());
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
+        verify(itemService, never()).findByText(any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("searchItemsByText с испорченным cursor")
+    void searchItemsByTextWhenCursorMalformed() {
+        when(itemService.findByTextByCursor(eq("text"), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    ItemSearchCursor.decode(invocation.getArgument(1));
+                    return ItemListDto.builder().items(List.of(itemDto)).build();
+                });
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("cursor", "bWF5YmV8MHwx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("streamItemsByText пишет пачки одним JSON массивом")
+    void streamItemsByText() {
+        ItemDto second = ItemDto.builder().id(2L).name("2").description("2").available(true).build();
+        doAnswer(invocation -> {
+            Consumer<List<ItemDto>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(itemDto));
+            consumer.accept(List.of(second));
+            return null;
+        }).when(itemService).streamByText(eq("text"), any());
+
+        MvcResult result = mockMvc.perform(get("/items/search/stream")
+                        .param("text", "text"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto, second))));
+    }
+
     @SneakyThrows
     @Test
     @DisplayName("addComment успешное добавление ")
@@ -296,4 +399,4 @@ public class ItemControllerTest {
                 .andDo(print())
                 .andReturn();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
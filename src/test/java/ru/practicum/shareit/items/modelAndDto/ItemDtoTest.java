@@ -11,7 +11,6 @@ import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -32,7 +31,7 @@ class ItemDtoTest {
         String formatCreated = created.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
         String formatEnd = end.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
         ItemDto build = ItemDto.builder()
-                .owner(User.builder()
+                .owner(UserDto.builder()
                         .id(1L)
                         .name("name")
                         .email("email@mail.ru")
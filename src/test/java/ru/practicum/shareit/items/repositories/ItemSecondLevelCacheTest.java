@@ -0,0 +1,125 @@
+package ru.practicum.shareit.items.repositories;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "shareit.hibernate.statistics.enabled=true"})
+class ItemSecondLevelCacheTest {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        item = transaction.execute(status -> {
+            User owner = userRepository.save(User.builder()
+                    .name("owner")
+                    .email("owner@mail.com")
+                    .build());
+            return itemRepository.save(Item.builder()
+                    .name("item")
+                    .description("item")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clean() {
+        transaction.executeWithoutResult(status -> {
+            itemRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void findById_whenLoadedInPreviousTransaction_thenServedFromSecondLevelCache() {
+        findItem();
+        Item cached = findItem();
+
+        assertEquals("item", cached.getName());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("items").getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("items").getHitCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findById_whenOwnerLoadedInPreviousTransaction_thenOwnerServedFromSecondLevelCache() {
+        findItem();
+        Item cached = findItem();
+
+        assertEquals("owner", cached.getOwner().getName());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void save_whenItemUpdated_thenCacheHoldsNewState() {
+        findItem();
+        transaction.executeWithoutResult(status -> {
+            Item changed = itemRepository.findById(item.getId()).orElseThrow();
+            changed.setName("changed");
+        });
+        Item cached = findItem();
+
+        assertEquals("changed", cached.getName());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void evict_whenItemsRegionEvicted_thenReloadFromDatabase() {
+        findItem();
+        entityManagerFactory.getCache().evict(Item.class);
+        findItem();
+
+        assertEquals(0, statistics.getDomainDataRegionStatistics("items").getHitCount());
+        assertEquals(3, statistics.getEntityLoadCount());
+    }
+
+    private Item findItem() {
+        return transaction.execute(status -> {
+            Item found = itemRepository.findById(item.getId()).orElseThrow();
+            found.getOwner().getName();
+            return found;
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.items.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private MutableClock clock;
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    void init() {
+        clock = new MutableClock();
+        cache = new ItemSearchCache(2, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    @DisplayName("get повторный запрос не вызывает загрузку")
+    void getWhenCachedThenHit() {
+        get("дрель");
+        get("дрель");
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("get запись устаревает по TTL")
+    void getWhenExpiredThenReload() {
+        get("дрель");
+        clock.advance(Duration.ofMinutes(2));
+        get("дрель");
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("get при переполнении вытесняется давно не использованный запрос")
+    void getWhenOverflowThenEvictLeastRecentlyUsed() {
+        get("дрель");
+        get("клей");
+        get("дрель");
+        get("пила");
+        get("дрель");
+        get("клей");
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("invalidate сбрасывает только запросы, входящие в текст вещи")
+    void invalidateWhenTextMatchesThenDropOnlyMatching() {
+        get("дрель");
+        get("клей");
+
+        cache.invalidate("ударная дрель", "для бетона");
+        get("дрель");
+        get("клей");
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    @DisplayName("get результат, посчитанный до сброса, не кэшируется")
+    void getWhenInvalidatedDuringLoadThenNotCached() {
+        cache.get("дрель", () -> {
+            cache.invalidate("дрель");
+            return List.of();
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    private void get(String query) {
+        cache.get(query, () -> {
+            loads.incrementAndGet();
+            return List.of(new ItemSearchHit(1L, true, 0));
+        });
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
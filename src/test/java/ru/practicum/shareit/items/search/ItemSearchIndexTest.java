@@ -0,0 +1,98 @@
+package ru.practicum.shareit.items.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    void init() {
+        cache = new ItemSearchCache(100, Duration.ofMinutes(10));
+        index = new ItemSearchIndex(itemRepository, cache);
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(
+                item(1L, "Отвёртка", "Аккумуляторная дрель-отвёртка", true),
+                item(2L, "Дрель", "Простая дрель", true),
+                item(3L, "Клей", "Клей для дерева", true)));
+    }
+
+    @Test
+    @DisplayName("search совпадение в названии выше совпадения в описании, без учёта регистра")
+    void searchWhenNameAndDescriptionMatch() {
+        assertEquals(List.of(2L, 1L), ids("ДРЕЛЬ"));
+        verify(itemRepository, times(1)).findAllByAvailableTrue();
+    }
+
+    @Test
+    @DisplayName("search подстрока внутри слова и короткий запрос")
+    void searchWhenSubstring() {
+        assertEquals(List.of(1L), ids("ёрт"));
+        assertEquals(List.of(3L), ids("кл"));
+        assertTrue(ids("пила").isEmpty());
+    }
+
+    @Test
+    @DisplayName("index и remove обновляют загруженный индекс")
+    void indexAndRemoveWhenLoaded() {
+        index.search("дрель");
+
+        index.index(item(4L, "Пила", "Ручная пила", true));
+        index.index(item(2L, "Дрель", "Простая дрель", false));
+        index.remove(1L);
+
+        assertEquals(List.of(4L), ids("пила"));
+        assertTrue(ids("дрель").isEmpty());
+    }
+
+    @Test
+    @DisplayName("повторный запрос отдаётся из кэша, изменение вещи сбрасывает только совпадающие запросы")
+    void searchWhenCachedThenInvalidatePrecisely() {
+        ids("дрель");
+        ids("клей");
+        ids("Дрель");
+
+        index.index(item(2L, "Дрель ударная", "Простая дрель", true));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(List.of(3L), ids("клей"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(List.of(2L), ids("ударн"));
+    }
+
+    private List<Long> ids(String text) {
+        return index.search(text).stream().map(ItemSearchHit::getItemId).collect(Collectors.toList());
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.items.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
+import ru.practicum.shareit.item.repositories.ItemBookingPointersRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
+import ru.practicum.shareit.item.service.ItemBookingPointersServiceImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@Import(ItemBookingPointersServiceImpl.class)
+class ItemBookingPointersServiceImplTest {
+    @Autowired
+    private ItemBookingPointersService pointersService;
+    @Autowired
+    private ItemBookingPointersRepository pointersRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Item item;
+    private User booker;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void init() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User owner = entityManager.persist(User.builder().name("owner").email("owner@mail.com").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@mail.com").build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("item")
+                .available(true)
+                .owner(owner)
+                .build());
+        pointersService.init(item.getId());
+    }
+
+    @Test
+    @DisplayName("refresh запоминает последнее и следующее подтверждённые бронирования")
+    void refresh_whenApprovedBookings_thenPointersAndRollAtSet() {
+        Booking last = persistBooking(now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        Booking next = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        persistBooking(now.plusHours(1), now.plusHours(2), BookingStatus.WAITING);
+
+        pointersService.refresh(item.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingPointers pointers = pointersService.get(item.getId());
+        assertEquals(last.getId(), pointers.getLastBooking().getId());
+        assertEquals(next.getId(), pointers.getNextBooking().getId());
+        assertEquals(next.getEnd(), pointers.getRollAt());
+        assertEquals("booker", pointers.getNextBooking().getBooker().getName());
+    }
+
+    @Test
+    @DisplayName("rollExpired сдвигает указатели, когда следующее бронирование закончилось")
+    void rollExpired_whenNextBookingEnded_thenShiftPointers() {
+        Booking ended = persistBooking(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking upcoming = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        ItemBookingPointers pointers = pointersRepository.findById(item.getId()).orElseThrow();
+        pointers.setNextBooking(ended);
+        pointers.setRollAt(ended.getEnd());
+        entityManager.flush();
+
+        int rolled = pointersService.rollExpired();
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingPointers rolledPointers = pointersRepository.findById(item.getId()).orElseThrow();
+        assertEquals(1, rolled);
+        assertEquals(ended.getId(), rolledPointers.getLastBooking().getId());
+        assertEquals(upcoming.getId(), rolledPointers.getNextBooking().getId());
+        assertEquals(0, pointersService.rollExpired());
+    }
+
+    @Test
+    @DisplayName("getAll вычисляет указатели для вещи без записи")
+    void getAll_whenNoPointersRow_thenComputeFromBookings() {
+        Booking next = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        pointersRepository.deleteById(item.getId());
+        entityManager.flush();
+
+        ItemBookingPointers pointers = pointersService.getAll(List.of(item.getId())).get(item.getId());
+
+        assertNull(pointers.getLastBooking());
+        assertEquals(next.getId(), pointers.getNextBooking().getId());
+    }
+
+    @Test
+    @DisplayName("invalidateBooker помечает к пересчёту указатели на бронирования удаляемого пользователя")
+    void invalidateBooker_whenBookingsCascadeDeleted_thenRecomputePointers() {
+        User other = entityManager.persist(User.builder().name("other").email("other@mail.com").build());
+        Booking later = persistBooking(now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+        later.setBooker(other);
+        Booking next = persistBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        pointersService.refresh(item.getId());
+        entityManager.flush();
+
+        pointersService.invalidateBooker(booker.getId());
+        entityManager.clear();
+        // так каскадное удаление бронирований пользователя выглядит для указателей: ON DELETE SET NULL
+        entityManager.getEntityManager().createQuery("UPDATE ItemBookingPointers p SET p.nextBooking = null")
+                .executeUpdate();
+        entityManager.getEntityManager().createQuery("DELETE FROM Booking bok WHERE bok.id = :id")
+                .setParameter("id", next.getId())
+                .executeUpdate();
+
+        ItemBookingPointers pointers = pointersService.get(item.getId());
+        assertEquals(later.getId(), pointers.getNextBooking().getId());
+        assertEquals(1, pointersService.rollExpired());
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.items.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
+import ru.practicum.shareit.item.repositories.ItemBookingPointersRepository;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
+import ru.practicum.shareit.item.service.ItemBookingPointersServiceImpl;
+import ru.practicum.shareit.monitoring.SqlMonitoringConfig;
+import ru.practicum.shareit.monitoring.SqlStatementCounter;
+import ru.practicum.shareit.monitoring.SqlStatementRecorder;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.utility.SqlStatements;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@DirtiesContext
+@Import({ItemBookingPointersServiceImpl.class, SqlMonitoringConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemBookingPointersWriteThroughTest {
+    @Autowired
+    private ItemBookingPointersService pointersService;
+    @Autowired
+    private ItemBookingPointersRepository pointersRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Item item;
+    private Booking next;
+
+    @BeforeEach
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        transaction.executeWithoutResult(status -> {
+            User owner = userRepository.save(User.builder().name("owner").email("owner@mail.com").build());
+            User booker = userRepository.save(User.builder().name("booker").email("booker@mail.com").build());
+            // вещь без записи указателей, как созданная до появления таблицы
+            item = itemRepository.save(Item.builder()
+                    .name("item")
+                    .description("item")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            next = bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(now.plusDays(1))
+                    .end(now.plusDays(2))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void clean() {
+        transaction.executeWithoutResult(status -> {
+            pointersRepository.deleteAll();
+            bookingRepository.deleteAll();
+            itemRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void getAll_whenNoPointersRow_thenSecondReadDoesNotHitBookings() {
+        Map<Long, ItemBookingPointers> first = new HashMap<>();
+        Map<Long, ItemBookingPointers> second = new HashMap<>();
+
+        SqlStatementCounter firstCounter = SqlStatements.capture(recorder,
+                () -> first.putAll(pointersService.getAll(List.of(item.getId()))));
+        SqlStatementCounter secondCounter = SqlStatements.capture(recorder,
+                () -> second.putAll(pointersService.getAll(List.of(item.getId()))));
+
+        assertEquals(next.getId(), first.get(item.getId()).getNextBooking().getId());
+        assertEquals(next.getId(), second.get(item.getId()).getNextBooking().getId());
+        assertTrue(pointersRepository.existsById(item.getId()));
+        // указатели + бронирования, затем вставка записи
+        SqlStatements.assertSelectsAtMost(firstCounter, 2);
+        // только указатели
+        assertEquals(1, secondCounter.getTotal());
+    }
+}
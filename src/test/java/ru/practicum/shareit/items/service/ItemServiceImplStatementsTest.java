@@ -0,0 +1,152 @@
+package ru.practicum.shareit.items.service;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
+import ru.practicum.shareit.item.service.ItemBookingPointersServiceImpl;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.monitoring.SqlMonitoringConfig;
+import ru.practicum.shareit.monitoring.SqlStatementCounter;
+import ru.practicum.shareit.monitoring.SqlStatementRecorder;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.SqlStatements;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ItemServiceImpl.class, UserCache.class, ItemBookingPointersServiceImpl.class, ItemSearchIndex.class,
+        ItemSearchCache.class, BookingIntervalIndex.class, SqlMonitoringConfig.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ItemServiceImplStatementsTest {
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemBookingPointersService pointersService;
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void init() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = entityManager.persist(User.builder().name("owner").email("owner@mail.com").build());
+        User booker = entityManager.persist(User.builder().name("booker").email("booker@mail.com").build());
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = entityManager.persist(Item.builder()
+                    .name("item " + i)
+                    .description("item")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(now.plusDays(1))
+                    .end(now.plusDays(2))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            entityManager.persist(Comment.builder()
+                    .text("comment " + i)
+                    .item(item)
+                    .author(booker)
+                    .created(now)
+                    .build());
+            items.add(item);
+        }
+        entityManager.flush();
+        items.forEach(item -> pointersService.refresh(item.getId()));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllItemByUserId_whenManyItems_thenStatementsDoNotGrowWithItems() {
+        List<ItemResponseDto> items = new ArrayList<>();
+
+        SqlStatementCounter counter = SqlStatements.capture(recorder,
+                () -> items.addAll(itemService.findAllItemByUserId(owner.getId())));
+
+        assertEquals(ITEMS, items.size());
+        items.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(1, item.getComments().size());
+        });
+        // пользователь + вещи + комментарии + указатели бронирований
+        SqlStatements.assertSelectsAtMost(counter, 4);
+        assertEquals(counter.getTotal(), counter.getCount(QueryType.SELECT));
+    }
+
+    @Test
+    void findAllItemByUserId_whenPointersMissing_thenComputeThemInOneQuery() {
+        entityManager.getEntityManager().createQuery("DELETE FROM ItemBookingPointers").executeUpdate();
+        List<ItemResponseDto> items = new ArrayList<>();
+
+        SqlStatementCounter counter = SqlStatements.capture(recorder,
+                () -> items.addAll(itemService.findAllItemByUserId(owner.getId())));
+
+        assertEquals(ITEMS, items.size());
+        items.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+        });
+        // пользователь + вещи + комментарии + указатели бронирований + бронирования для всех вещей без указателей
+        SqlStatements.assertSelectsAtMost(counter, 5);
+    }
+
+    @Test
+    void findByTextInWindow_whenManyItems_thenStatementsDoNotGrowWithItems() {
+        LocalDateTime bookedFrom = LocalDateTime.now().plusDays(1);
+        List<ItemDto> busy = new ArrayList<>();
+        List<ItemDto> free = new ArrayList<>();
+
+        SqlStatementCounter busyCounter = SqlStatements.capture(recorder, () -> busy.addAll(
+                itemService.findByText("item", bookedFrom.plusHours(1), bookedFrom.plusHours(2), null, null)));
+        SqlStatementCounter freeCounter = SqlStatements.capture(recorder, () -> free.addAll(
+                itemService.findByText("item", bookedFrom.plusDays(2), bookedFrom.plusDays(3), null, null)));
+
+        assertTrue(busy.isEmpty());
+        assertEquals(ITEMS, free.size());
+        // построение поискового индекса + занятые вещи
+        SqlStatements.assertSelectsAtMost(busyCounter, 2);
+        // занятые вещи + вещи страницы
+        SqlStatements.assertSelectsAtMost(freeCounter, 2);
+    }
+}
@@ -6,33 +6,50 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.booking.dto.BookingDtoUser;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.comments.dto.CommentRequestDto;
 import ru.practicum.shareit.comments.dto.CommentResponseDto;
+import ru.practicum.shareit.comments.dto.CommentView;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.comments.repositories.CommentRepository;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemListDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointers;
 import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.user.cache.UserCacheTest.userCache;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceImplTest {
@@ -46,6 +63,10 @@ class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemBookingPointersService pointersService;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
     private Item item;
     private ItemDto itemDto;
     private ItemResponseDto itemResponseDto;
@@ -54,11 +75,12 @@ class ItemServiceImplTest {
 
     @BeforeEach
     void init() {
-        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository);
+        itemService = new ItemServiceImpl(itemRepository, userCache(userRepository), bookingRepository, commentRepository,
+                pointersService, itemSearchIndex, new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(10)));
         itemDto = ItemDto.builder()
                 .name("test")
                 .comments(List.of())
-                .owner(User.builder().build())
+                .owner(UserDto.builder().build())
                 .requestId(TEST_ID)
                 .description("test")
                 .available(true)
@@ -112,6 +134,7 @@ class ItemServiceImplTest {
         assertEquals(itemResponseDto.getRequestId(), result.getRequestId());
         verify(userRepository, times(1)).findById(TEST_ID);
         verify(itemRepository, times(1)).save(any());
+        verify(pointersService, times(1)).init(TEST_ID);
     }
 
     @Test
@@ -216,14 +239,9 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("findById успешное")
     void findByI_whenInvoked_thenReturnItem() {
-        when(itemRepository.findByIdFull(TEST_ID)).thenReturn(Optional.of(item));
-        when(commentRepository.getCommentsByItem_idOrderByCreatedDesc(eq(TEST_ID))).thenReturn(List.of());
-        when(bookingRepository
-                .findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(eq(TEST_ID), any(), any(), any()))
-                .thenReturn(List.of());
-        when(bookingRepository
-                .findTop1BookingByItemIdAndEndIsAfterAndStatusIs(eq(TEST_ID), any(), any(), any()))
-                .thenReturn(List.of());
+        when(itemRepository.findViewById(TEST_ID)).thenReturn(Optional.of(view(item)));
+        when(commentRepository.findViewsByItemId(eq(TEST_ID))).thenReturn(List.of());
+        when(pointersService.get(TEST_ID)).thenReturn(ItemBookingPointers.builder().itemId(TEST_ID).build());
 
         ItemResponseDto result = itemService.findById(TEST_ID, TEST_ID);
 
@@ -232,29 +250,23 @@ class ItemServiceImplTest {
         assertEquals(itemResponseDto.getDescription(), result.getDescription());
         assertEquals(itemResponseDto.getAvailable(), result.getAvailable());
         assertEquals(itemResponseDto.getRequestId(), result.getRequestId());
-        verify(itemRepository, times(1)).findByIdFull(TEST_ID);
-        verify(commentRepository, times(1)).getCommentsByItem_idOrderByCreatedDesc(eq(TEST_ID));
-        verify(bookingRepository, times(1)).findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(
-                eq(TEST_ID), any(), any(), any());
-        verify(bookingRepository, times(1)).findTop1BookingByItemIdAndEndIsAfterAndStatusIs(
-                eq(TEST_ID), any(), any(), any());
+        verify(itemRepository, times(1)).findViewById(TEST_ID);
+        verify(commentRepository, times(1)).findViewsByItemId(eq(TEST_ID));
+        verify(pointersService, times(1)).get(TEST_ID);
     }
 
     @Test
     @DisplayName("findById item не существует")
     void findByI_whenItemNOtExist() {
-        when(itemRepository.findByIdFull(TEST_ID)).thenReturn(Optional.empty());
+        when(itemRepository.findViewById(TEST_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException itemNotFoundException = assertThrows(EntityNotFoundException.class, () ->
                 itemService.findById(TEST_ID, TEST_ID));
 
         assertEquals("Вещь не найдена", itemNotFoundException.getMessage());
-        verify(itemRepository, times(1)).findByIdFull(TEST_ID);
-        verify(commentRepository, times(0)).getCommentsByItem_idOrderByCreatedDesc(eq(TEST_ID));
-        verify(bookingRepository, times(0)).findTop1BookingByItemIdAndEndIsBeforeAndStatusIs(
-                eq(TEST_ID), any(), any(), any());
-        verify(bookingRepository, times(0)).findTop1BookingByItemIdAndEndIsAfterAndStatusIs(
-                eq(TEST_ID), any(), any(), any());
+        verify(itemRepository, times(1)).findViewById(TEST_ID);
+        verify(commentRepository, times(0)).findViewsByItemId(eq(TEST_ID));
+        verify(pointersService, times(0)).get(any());
     }
 
     @Test
@@ -283,19 +295,16 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("findAllItemByUserId user не существует")
     void findAllItemByUserId_whenUserNotExist() {
-        when(userRepository.findById(eq(TEST_ID))).thenReturn(Optional.empty());
+        when(userRepository.existsById(eq(TEST_ID))).thenReturn(false);
 
         EntityNotFoundException entityNotFoundException = assertThrows(EntityNotFoundException.class,
                 () -> itemService.findAllItemByUserId(TEST_ID));
 
         assertEquals("Пользователь не найден", entityNotFoundException.getMessage());
-        verify(itemRepository, times(0)).findAllByOwnerIdOrderByIdAsc(eq(TEST_ID));
-        verify(commentRepository, times(0)).getCommentsByItem_idOrderByCreatedDesc(eq(TEST_ID));
-        verify(bookingRepository, times(0))
-                .findFirstByItem_idAndEndBeforeOrderByEndDesc(eq(TEST_ID), any());
-        verify(bookingRepository, times(0))
-                .findFirstByItem_idAndStartAfterOrderByStartAsc(eq(TEST_ID), any());
-        verify(userRepository, times(1)).findById(eq(TEST_ID));
+        verify(itemRepository, times(0)).findViewsByOwnerId(eq(TEST_ID));
+        verify(commentRepository, times(0)).findViewsByItemIdIn(any());
+        verify(pointersService, times(0)).getAll(any());
+        verify(userRepository, times(1)).existsById(eq(TEST_ID));
     }
 
     @Test
@@ -387,13 +396,37 @@ class ItemServiceImplTest {
         verify(commentRepository, times(0)).save(any());
     }
 
+    @Test
+    @DisplayName("addComment по отменённому бронированию")
+    void addCommentWhenBookingCanceled() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .booker(user)
+                .status(BookingStatus.CANCELED)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build();
+
+        when(userRepository.findById(TEST_ID)).thenReturn(Optional.of(user));
+        when(itemRepository.findByIdFull(TEST_ID)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItem_IdAndBooker_IdOrderByStartDesc(TEST_ID, TEST_ID))
+                .thenReturn(List.of(booking));
+
+        ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+                () -> itemService.addComment(TEST_ID, TEST_ID, CommentRequestDto.builder().text("test").build()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseStatusException.getStatus());
+        assertEquals("Вещь не найдена у Юзера", responseStatusException.getReason());
+        verify(commentRepository, times(0)).save(any());
+    }
+
     @Test
     @DisplayName("findByText пустой лист 200 код когда текс=null")
     void findByText_whenTextIsNull_thenReturnEmptyList() {
 
         String text = null;
 
-        List<ItemDto> result = itemService.findByText(text);
+        List<ItemDto> result = itemService.findByText(text, null, null);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
@@ -405,12 +438,150 @@ class ItemServiceImplTest {
 
         String text = "   ";
 
-        List<ItemDto> result = itemService.findByText(text);
+        List<ItemDto> result = itemService.findByText(text, null, null);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    @DisplayName("findByText вещи в порядке релевантности из индекса")
+    void findByText_whenIndexMatches_thenReturnItemsInIndexOrder() {
+        Item second = new Item(2L, "Дрель", "test", true, user, null);
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(TEST_ID, 0)));
+        when(itemRepository.findViewsByIdIn(List.of(2L, TEST_ID))).thenReturn(List.of(view(item), view(second)));
+
+        List<ItemDto> result = itemService.findByText("test", null, null);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(TEST_ID, result.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("findByText from/size берёт страницу результатов")
+    void findByText_whenPaged_thenLoadOnlyPage() {
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(TEST_ID, 1)));
+        when(itemRepository.findViewsByIdIn(List.of(TEST_ID))).thenReturn(List.of(view(item)));
+
+        List<ItemDto> result = itemService.findByText("test", 1, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(TEST_ID, result.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("findByText добирает страницу, если вещи из индекса уже нет в БД")
+    void findByText_whenHitIsStale_thenFillPageFromNextHits() {
+        Item third = new Item(3L, "test", "test", true, user, null);
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(TEST_ID, 0), hit(3L, 1)));
+        when(itemRepository.findViewsByIdIn(List.of(2L, TEST_ID))).thenReturn(List.of(view(item)));
+        when(itemRepository.findViewsByIdIn(List.of(3L))).thenReturn(List.of(view(third)));
+
+        List<ItemDto> result = itemService.findByText("test", 0, 2);
+
+        assertEquals(List.of(TEST_ID, 3L), result.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        verify(itemSearchIndex, times(1)).remove(2L);
+    }
+
+    @Test
+    @DisplayName("findByText с окном пропускает занятые вещи до пагинации")
+    void findByText_whenWindow_thenSkipBusyItemsBeforePaging() {
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        LocalDateTime end = start.plusDays(2);
+        Item third = new Item(3L, "test", "test", true, user, null);
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(TEST_ID, 0), hit(3L, 1)));
+        when(bookingRepository.findBusyItemIds(eq(List.of(2L, TEST_ID, 3L)), anyCollection(), eq(start), eq(end)))
+                .thenReturn(List.of(2L));
+        when(itemRepository.findViewsByIdIn(List.of(TEST_ID, 3L))).thenReturn(List.of(view(item), view(third)));
+
+        List<ItemDto> result = itemService.findByText("test", start, end, 1, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).getId());
+        verify(bookingRepository, times(1)).findBusyItemIds(any(), anyCollection(), any(), any());
+        verify(bookingRepository, never()).findByItem_IdAndStatusInAndEndAfter(any(), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("findByText с окном не засчитывает в смещение вещи, которых уже нет в БД")
+    void findByText_whenWindowAndHitIsStale_thenSkipOnlyLoadedItems() {
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        LocalDateTime end = start.plusDays(2);
+        Item third = new Item(3L, "test", "test", true, user, null);
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(TEST_ID, 0), hit(3L, 1)));
+        when(bookingRepository.findBusyItemIds(eq(List.of(2L, TEST_ID, 3L)), anyCollection(), eq(start), eq(end)))
+                .thenReturn(List.of());
+        when(itemRepository.findViewsByIdIn(List.of(2L, TEST_ID))).thenReturn(List.of(view(item)));
+        when(itemRepository.findViewsByIdIn(List.of(3L))).thenReturn(List.of(view(third)));
+
+        List<ItemDto> result = itemService.findByText("test", start, end, 1, 1);
+
+        assertEquals(List.of(3L), result.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        verify(itemSearchIndex, times(1)).remove(2L);
+    }
+
+    @Test
+    @DisplayName("findByText окно без конца")
+    void findByText_whenWindowWithoutEnd_thenBadRequest() {
+        assertThrows(ResponseStatusException.class,
+                () -> itemService.findByText("test", LocalDateTime.now(), null, null, null));
+        verify(itemSearchIndex, never()).search(any());
+    }
+
+    @Test
+    @DisplayName("findByTextByCursor обходит все результаты по cursor")
+    void findByTextByCursor_whenWalkPages_thenReturnAllOnce() {
+        Item second = new Item(2L, "test", "test", true, user, null);
+        Item third = new Item(3L, "test", "test", true, user, null);
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(2L, 0), hit(3L, 0), hit(TEST_ID, 1)));
+        when(itemRepository.findViewsByIdIn(List.of(2L, 3L))).thenReturn(List.of(view(second), view(third)));
+        when(itemRepository.findViewsByIdIn(List.of(TEST_ID))).thenReturn(List.of(view(item)));
+
+        ItemListDto first = itemService.findByTextByCursor("test", null, 2);
+        ItemListDto last = itemService.findByTextByCursor("test", first.getNextCursor(), 2);
+
+        assertEquals(List.of(2L, 3L), first.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(TEST_ID, last.getItems().get(0).getId());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("streamByText отдаёт результаты пачками")
+    void streamByText_whenInvoked_thenConsumeBatches() {
+        when(itemSearchIndex.search("test")).thenReturn(List.of(hit(TEST_ID, 0)));
+        when(itemRepository.findViewsByIdIn(List.of(TEST_ID))).thenReturn(List.of(view(item)));
+        List<List<ItemDto>> batches = new ArrayList<>();
+
+        itemService.streamByText("test", batches::add);
+
+        assertEquals(1, batches.size());
+        assertEquals(TEST_ID, batches.get(0).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("findByText индекс ничего не нашёл")
+    void findByText_whenIndexEmpty_thenSkipDatabase() {
+        when(itemSearchIndex.search("nothing")).thenReturn(List.of());
+
+        assertTrue(itemService.findByText("nothing", null, null).isEmpty());
+        verify(itemRepository, never()).findViewsByIdIn(any());
+    }
+
+    private static ItemSearchHit hit(Long itemId, int position) {
+        return new ItemSearchHit(itemId, true, position);
+    }
+
+    private static ItemView view(Item item) {
+        return new ItemView(item.getId(), item.getName(), item.getDescription(), item.isAvailable(),
+                item.getRequestId(), item.getOwner().getId(), item.getOwner().getName(), item.getOwner().getEmail());
+    }
+
+    private static CommentView view(Comment comment) {
+        return new CommentView(comment.getId(), comment.getItem().getId(), comment.getText(),
+                comment.getAuthor().getName(), comment.getCreated());
+    }
+
     @Test
     void findAllItemByUserId() {
         Long userId = 1L;
@@ -418,15 +589,13 @@ class ItemServiceImplTest {
         Item item = new Item(1L, "Item 1", "Description 1", true, user, 2L);
         item.setId(1L);
 
-        List<Item> itemList = Collections.singletonList(item);
+        List<ItemView> itemList = Collections.singletonList(view(item));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findAllByOwnerIdOrderByIdAsc(user.getId())).thenReturn(itemList);
-        when(bookingRepository.findFirstByItem_idAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(bookingRepository.findFirstByItem_idAndStartAfterOrderByStartAsc(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(commentRepository.getCommentsByItem_idOrderByCreatedDesc(anyLong())).thenReturn(Collections.emptyList());
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(user.getId())).thenReturn(itemList);
+        when(pointersService.getAll(anyCollection()))
+                .thenReturn(Map.of(item.getId(), ItemBookingPointers.builder().itemId(item.getId()).build()));
+        when(commentRepository.findViewsByItemIdIn(anyCollection())).thenReturn(Collections.emptyList());
 
         List<ItemResponseDto> result = itemService.findAllItemByUserId(userId);
 
@@ -437,12 +606,93 @@ class ItemServiceImplTest {
         assertEquals(item.getName(), responseDto.getName());
         assertEquals(item.getDescription(), responseDto.getDescription());
 
-        verify(userRepository, times(1)).findById(userId);
-        verify(itemRepository, times(1)).findAllByOwnerIdOrderByIdAsc(user.getId());
-        verify(bookingRepository, times(1))
-                .findFirstByItem_idAndEndBeforeOrderByEndDesc(eq(item.getId()), any(LocalDateTime.class));
-        verify(bookingRepository, times(1))
-                .findFirstByItem_idAndStartAfterOrderByStartAsc(eq(item.getId()), any(LocalDateTime.class));
-        verify(commentRepository, times(1)).getCommentsByItem_idOrderByCreatedDesc(eq(item.getId()));
+        verify(userRepository, times(1)).existsById(userId);
+        verify(itemRepository, times(1)).findViewsByOwnerId(user.getId());
+        verify(pointersService, times(1)).getAll(eq(List.of(item.getId())));
+        verify(commentRepository, times(1)).findViewsByItemIdIn(eq(List.of(item.getId())));
+    }
+
+    @Test
+    @DisplayName("findAllItemByUserId бронирования и комментарии раскладываются по своим вещам")
+    void findAllItemByUserId_whenSeveralItems_thenStitchByItemId() {
+        Item second = new Item(2L, "Item 2", "Description 2", true, user, null);
+        Booking lastOfSecond = Booking.builder()
+                .id(10L)
+                .item(second)
+                .booker(User.builder().id(3L).build())
+                .status(BookingStatus.APPROVED)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build();
+        Comment commentOfSecond = Comment.builder()
+                .id(20L)
+                .item(second)
+                .author(User.builder().id(3L).name("author").build())
+                .text("text")
+                .created(LocalDateTime.now())
+                .build();
+
+        when(userRepository.existsById(TEST_ID)).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(TEST_ID)).thenReturn(List.of(view(item), view(second)));
+        when(pointersService.getAll(anyCollection())).thenReturn(Map.of(
+                item.getId(), ItemBookingPointers.builder().itemId(item.getId()).build(),
+                second.getId(), ItemBookingPointers.builder().itemId(second.getId()).lastBooking(lastOfSecond).build()));
+        when(commentRepository.findViewsByItemIdIn(anyCollection()))
+                .thenReturn(List.of(view(commentOfSecond)));
+
+        List<ItemResponseDto> result = itemService.findAllItemByUserId(TEST_ID);
+
+        assertEquals(2, result.size());
+        assertNull(result.get(0).getLastBooking());
+        assertTrue(result.get(0).getComments().isEmpty());
+        assertEquals(10L, result.get(1).getLastBooking().getId());
+        assertEquals(3L, result.get(1).getLastBooking().getBookerId());
+        assertEquals("author", result.get(1).getComments().get(0).getAuthorName());
+    }
+
+    @Test
+    @DisplayName("findAllItemByUserId у user нет вещей")
+    void findAllItemByUserId_whenNoItems_thenSkipBatchQueries() {
+        when(userRepository.existsById(TEST_ID)).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(TEST_ID)).thenReturn(List.of());
+
+        assertTrue(itemService.findAllItemByUserId(TEST_ID).isEmpty());
+        verify(commentRepository, never()).findViewsByItemIdIn(any());
+        verify(pointersService, never()).getAll(any());
+    }
+
+    @Test
+    @DisplayName("getAvailability чередует свободные и занятые промежутки")
+    void getAvailability_whenActiveBookings_thenFreeAndBusySlots() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+        Booking first = Booking.builder().id(10L).item(item)
+                .start(from.minusDays(1)).end(from.plusDays(2)).build();
+        Booking second = Booking.builder().id(11L).item(item)
+                .start(from.plusDays(4)).end(from.plusDays(5)).build();
+        when(userRepository.existsById(TEST_ID)).thenReturn(true);
+        when(itemRepository.findById(TEST_ID)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItem_IdAndStatusInAndEndAfter(eq(TEST_ID), anyCollection(), any()))
+                .thenReturn(List.of(first, second));
+
+        ItemAvailabilityDto result = itemService.getAvailability(TEST_ID, TEST_ID, from, to);
+
+        assertEquals(List.of(
+                new ItemAvailabilitySlotDto(from, from.plusDays(2), false),
+                new ItemAvailabilitySlotDto(from.plusDays(2), from.plusDays(4), true),
+                new ItemAvailabilitySlotDto(from.plusDays(4), from.plusDays(5), false),
+                new ItemAvailabilitySlotDto(from.plusDays(5), to, true)), result.getSlots());
+    }
+
+    @Test
+    @DisplayName("getAvailability конец периода раньше начала")
+    void getAvailability_whenToBeforeFrom_thenBadRequest() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(userRepository.existsById(TEST_ID)).thenReturn(true);
+        when(itemRepository.findById(TEST_ID)).thenReturn(Optional.of(item));
+
+        assertThrows(ResponseStatusException.class,
+                () -> itemService.getAvailability(TEST_ID, TEST_ID, from, from.minusHours(1)));
+        verify(bookingRepository, never()).findByItem_IdAndStatusInAndEndAfter(any(), any(), any());
     }
-}
\ No newline at end of file
+}
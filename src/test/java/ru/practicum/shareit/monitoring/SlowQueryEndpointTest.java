@@ -0,0 +1,34 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.sql.slow-query.threshold=PT0S")
+@AutoConfigureMockMvc
+class SlowQueryEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void slowQueries_whenRequestServed_thenExposeEndpointAndUser() throws Exception {
+        mockMvc.perform(delete("/actuator/slowqueries"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 42))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].endpoint", hasItem("GET /items")))
+                .andExpect(jsonPath("$[*].userId", hasItem("42")));
+    }
+}
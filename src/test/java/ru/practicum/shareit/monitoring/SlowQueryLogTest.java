@@ -0,0 +1,144 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "shareit.sql.slow-query.threshold=PT0S",
+        "shareit.sql.slow-query.capacity=2",
+        "shareit.sql.slow-query.explain-sample-rate=1"})
+@Import(SqlMonitoringConfig.class)
+class SlowQueryLogTest {
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void unbind() {
+        slowQueryLog.unbind();
+    }
+
+    @Test
+    void afterQuery_whenOverThreshold_thenKeepLastEntriesWithParametersAndContext() {
+        slowQueryLog.clear();
+        slowQueryLog.bind("GET /items/{itemId}", "7");
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, 1L);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE id = ?", Long.class, 2L);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE id = ? OR id = ?", Long.class, 3L, 4L);
+
+        List<SlowQuery> entries = slowQueryLog.getEntries();
+        assertEquals(2, entries.size());
+        SlowQuery newest = entries.get(0);
+        assertTrue(newest.getQuery().contains("bookings"));
+        assertEquals(List.of(List.of("3", "4")), newest.getParameters());
+        assertEquals("GET /items/{itemId}", newest.getEndpoint());
+        assertEquals("7", newest.getUserId());
+        // план снимается только на PostgreSQL
+        assertNull(newest.getPlan());
+        assertTrue(entries.get(1).getQuery().contains("items"));
+    }
+
+    @Test
+    void afterQuery_whenNoRequestContext_thenRecordWithoutEndpoint() {
+        slowQueryLog.clear();
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+
+        SlowQuery entry = slowQueryLog.getEntries().get(0);
+        assertNull(entry.getEndpoint());
+        assertNull(entry.getUserId());
+        assertEquals(List.of(), entry.getParameters());
+    }
+
+    @Test
+    void afterQuery_whenStatementFailedOrNotSelect_thenDoNotExplain() throws SQLException {
+        Connection connection = postgresConnection();
+        SlowQueryLog log = new SlowQueryLog(Duration.ZERO, 10, 1);
+
+        log.afterQuery(execution(connection, false, 0), List.of(new QueryInfo("SELECT * FROM users")));
+        log.afterQuery(execution(connection, true, 0), List.of(new QueryInfo("UPDATE users SET name = 'a'")));
+
+        verify(connection, never()).prepareStatement(anyString());
+        assertEquals(2, log.getEntries().size());
+    }
+
+    @Test
+    void afterQuery_whenExplainFailsInTransaction_thenRollbackToSavepoint() throws SQLException {
+        Connection connection = postgresConnection();
+        Savepoint savepoint = mock(Savepoint.class);
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("syntax error"));
+        SlowQueryLog log = new SlowQueryLog(Duration.ZERO, 10, 1);
+
+        log.afterQuery(execution(connection, true, 0), List.of(new QueryInfo("SELECT * FROM users")));
+
+        verify(connection).rollback(savepoint);
+        verify(connection, never()).releaseSavepoint(savepoint);
+        assertNull(log.getEntries().get(0).getPlan());
+    }
+
+    @Test
+    void afterQuery_whenBatch_thenKeepBatchSizeWithSharedElapsedTime() {
+        SlowQueryLog log = new SlowQueryLog(Duration.ZERO, 10, 0);
+        ExecutionInfo execution = execution(mock(Connection.class), true, 3);
+        execution.setElapsedTime(30);
+
+        log.afterQuery(execution, List.of(new QueryInfo("INSERT INTO users (name) VALUES ('a')"),
+                new QueryInfo("INSERT INTO users (name) VALUES ('b')"),
+                new QueryInfo("INSERT INTO users (name) VALUES ('c')")));
+
+        List<SlowQuery> entries = log.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(3, entries.get(0).getBatchSize());
+        assertEquals(30, entries.get(0).getElapsedMillis());
+    }
+
+    private static Connection postgresConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        return connection;
+    }
+
+    private static ExecutionInfo execution(Connection connection, boolean success, int batchSize) {
+        Statement statement = mock(Statement.class);
+        try {
+            when(statement.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setStatement(statement);
+        execution.setSuccess(success);
+        execution.setBatch(batchSize > 0);
+        execution.setBatchSize(batchSize);
+        return execution;
+    }
+}
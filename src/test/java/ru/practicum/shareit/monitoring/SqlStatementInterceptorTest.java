@@ -0,0 +1,65 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementInterceptorTest {
+    private static final String STREAM = "GET /items/search/stream";
+    private static final String USERS = "GET /users";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private SqlEndpointStatistics statistics;
+
+    @Test
+    void stream_whenAsyncDispatched_thenCountOnceAndReleaseThread() throws Exception {
+        long streamRequests = requests(STREAM);
+        long usersRequests = requests(USERS);
+        long usersSelects = selects(USERS);
+
+        MvcResult result = mockMvc.perform(get("/items/search/stream")
+                        .param("text", "дрель"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // счётчик потокового запроса не остался открытым в потоке
+        assertThrows(IllegalStateException.class, recorder::stop);
+        assertEquals(streamRequests + 1, requests(STREAM));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk());
+
+        assertThrows(IllegalStateException.class, recorder::stop);
+        assertEquals(usersRequests + 1, requests(USERS));
+        assertEquals(usersSelects + 1, selects(USERS));
+    }
+
+    private long requests(String endpoint) {
+        SqlEndpointStatistics.Endpoint statistics = this.statistics.getEndpoints().get(endpoint);
+        return statistics != null ? statistics.getRequests() : 0;
+    }
+
+    private long selects(String endpoint) {
+        SqlEndpointStatistics.Endpoint statistics = this.statistics.getEndpoints().get(endpoint);
+        return statistics != null ? statistics.getStatements(QueryType.SELECT) : 0;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.utility.SqlStatements;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(SqlMonitoringConfig.class)
+class SqlStatementRecorderTest {
+    @Autowired
+    private SqlStatementRecorder recorder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void capture_whenStatementsOfDifferentTypes_thenCountByType() {
+        SqlStatementCounter counter = SqlStatements.capture(recorder, () -> {
+            jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'user', 'user@mail.com')");
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            jdbcTemplate.queryForObject("SELECT name FROM users WHERE id = 1", String.class);
+            jdbcTemplate.update("UPDATE users SET name = 'other' WHERE id = 1");
+            jdbcTemplate.update("DELETE FROM users WHERE id = 1");
+        });
+
+        assertEquals(2, counter.getCount(QueryType.SELECT));
+        assertEquals(1, counter.getCount(QueryType.INSERT));
+        assertEquals(1, counter.getCount(QueryType.UPDATE));
+        assertEquals(1, counter.getCount(QueryType.DELETE));
+        assertEquals(5, counter.getTotal());
+    }
+
+    @Test
+    void capture_whenNested_thenOuterCounterIncludesInner() {
+        SqlStatementCounter outer = recorder.start();
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        SqlStatementCounter inner = SqlStatements.capture(recorder,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class));
+        recorder.stop();
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+
+        assertEquals(1, inner.getCount(QueryType.SELECT));
+        assertEquals(2, outer.getCount(QueryType.SELECT));
+        assertTrue(outer.getElapsedMillis() >= inner.getElapsedMillis());
+    }
+
+    @Test
+    void assertElapsedAtMost_whenOverBudget_thenFail() {
+        SqlStatementCounter counter = SqlStatements.capture(recorder,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+
+        SqlStatements.assertElapsedAtMost(counter, Duration.ofMillis(counter.getElapsedMillis()));
+        assertThrows(AssertionError.class, () -> SqlStatements.assertElapsedAtMost(counter,
+                Duration.ofMillis(counter.getElapsedMillis() - 1)));
+    }
+
+    @Test
+    void stop_whenNotStarted_thenThrow() {
+        assertThrows(IllegalStateException.class, () -> recorder.stop());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.repositories.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailBloomFilterTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("mightContain нет ложноотрицательных ответов для прогретых и добавленных email")
+    void mightContainWhenWarmedAndAdded() {
+        List<String> emails = IntStream.range(0, 1000)
+                .mapToObj(i -> "user" + i + "@mail.com")
+                .collect(Collectors.toList());
+        when(userRepository.findAllEmails()).thenReturn(emails);
+        EmailBloomFilter filter = new EmailBloomFilter(userRepository, 1000, 0.01);
+
+        filter.add("new@mail.com");
+
+        assertTrue(emails.stream().allMatch(filter::mightContain));
+        assertTrue(filter.mightContain("new@mail.com"));
+        verify(userRepository, times(1)).findAllEmails();
+    }
+
+    @Test
+    @DisplayName("mightContain доля ложноположительных около заданной")
+    void mightContainWhenUnknownEmails() {
+        when(userRepository.findAllEmails()).thenReturn(IntStream.range(0, 1000)
+                .mapToObj(i -> "user" + i + "@mail.com")
+                .collect(Collectors.toList()));
+        EmailBloomFilter filter = new EmailBloomFilter(userRepository, 1000, 0.01);
+
+        long falsePositives = IntStream.range(0, 10000)
+                .filter(i -> filter.mightContain("other" + i + "@mail.com"))
+                .count();
+
+        assertTrue(falsePositives < 300, "ложноположительных: " + falsePositives);
+    }
+}
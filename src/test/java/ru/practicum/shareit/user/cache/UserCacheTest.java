@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+    private static final Long ID = 1L;
+    @Mock
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private User user;
+
+    public static UserCache userCache(UserRepository userRepository) {
+        return new UserCache(userRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(30), Clock.systemUTC());
+    }
+
+    @BeforeEach
+    void init() {
+        userCache = userCache(userRepository);
+        user = User.builder().id(ID).name("name").email("email@mail.com").build();
+    }
+
+    @Test
+    @DisplayName("find повторный запрос отдаётся из кэша копией")
+    void findWhenCachedThenNoSecondQuery() {
+        when(userRepository.findById(ID)).thenReturn(Optional.of(user));
+
+        User first = userCache.find(ID).orElseThrow();
+        first.setName("changed");
+        User second = userCache.find(ID).orElseThrow();
+
+        assertEquals("name", second.getName());
+        assertTrue(userCache.exists(ID));
+        verify(userRepository, times(1)).findById(ID);
+        verify(userRepository, never()).existsById(any());
+        assertEquals(2, userCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("exists несуществующий id запоминается в негативном кэше")
+    void existsWhenMissingThenNegativeCached() {
+        when(userRepository.existsById(ID)).thenReturn(false);
+
+        assertFalse(userCache.exists(ID));
+        assertFalse(userCache.exists(ID));
+        assertTrue(userCache.find(ID).isEmpty());
+
+        verify(userRepository, times(1)).existsById(ID);
+        verify(userRepository, never()).findById(any());
+        assertEquals(2, userCache.getNegativeHitCount());
+    }
+
+    @Test
+    @DisplayName("put снимает негативную запись, evict убирает пользователя")
+    void putAndEvictWhenUserChanged() {
+        when(userRepository.existsById(ID)).thenReturn(false, true);
+
+        assertFalse(userCache.exists(ID));
+        userCache.put(user);
+        assertEquals("name", userCache.find(ID).orElseThrow().getName());
+
+        userCache.evict(ID);
+        assertTrue(userCache.exists(ID));
+        verify(userRepository, times(2)).existsById(ID);
+    }
+}
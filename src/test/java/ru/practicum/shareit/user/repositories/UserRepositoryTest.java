@@ -5,10 +5,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -18,6 +20,8 @@ class UserRepositoryTest {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void setUp() {
@@ -59,6 +63,17 @@ class UserRepositoryTest {
         assertFalse(userRepository.existsUserByEmailIs("test1@email.com"));
     }
 
+    @Test
+    void save_whenSequenceGenerator_thenIdAssignedWithoutInsert() {
+        Long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+
+        User first = userRepository.save(User.builder().name("first").email("first@email.com").build());
+        User second = userRepository.save(User.builder().name("second").email("second@email.com").build());
+
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(before, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
     @AfterEach
     void tearDown() {
         userRepository.deleteAll();
@@ -4,27 +4,43 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.exp.EmailDuplicateException;
 import ru.practicum.shareit.exceptions.exp.EntityNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingPointersService;
+import ru.practicum.shareit.user.cache.EmailBloomFilter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapperDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.user.cache.UserCacheTest.userCache;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemBookingPointersService pointersService;
     private UserService userService;
 
     private UserDto userDto;
@@ -32,7 +48,9 @@ class UserServiceImplTest {
 
     @BeforeEach
     void init() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, userCache(userRepository),
+                new EmailBloomFilter(userRepository, 1000, 0.01), entityManagerFactory, bookingIntervalIndex,
+                pointersService);
         userDto = UserDto.builder()
                 .id(1L)
                 .name("1")
@@ -49,23 +67,24 @@ class UserServiceImplTest {
     @Test
     @DisplayName("save 200 status")
     void save200status() {
-        when(userRepository.save(any())).thenReturn(user);
+        when(userRepository.saveAndFlush(any())).thenReturn(user);
 
         UserDto userSave = userService.save(userDto);
 
         assertEquals(user.getEmail(), userSave.getEmail());
         assertEquals(user.getName(), userSave.getName());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
     }
 
     @Test
     @DisplayName("save email exist")
     void saveExistEmail() {
+        when(userRepository.findAllEmails()).thenReturn(List.of(user.getEmail()));
         when(userRepository.existsUserByEmailIs(user.getEmail())).thenThrow(EmailDuplicateException.class);
 
         assertThrows(EmailDuplicateException.class, () -> userService.save(userDto));
 
-        verify(userRepository, never()).save(user);
+        verify(userRepository, never()).saveAndFlush(user);
         verify(userRepository, times(1)).existsUserByEmailIs(user.getEmail());
     }
 
@@ -78,14 +97,14 @@ class UserServiceImplTest {
                 .email("emailUpdate@mail.com")
                 .build();
 
-        when(userRepository.save(any())).thenReturn(userUpdate);
+        when(userRepository.saveAndFlush(any())).thenReturn(userUpdate);
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
 
         UserDto userSave = userService.update(user.getId(), UserMapperDto.toUserDto(userUpdate));
 
         assertEquals(userUpdate.getEmail(), userSave.getEmail());
         assertEquals(userUpdate.getName(), userSave.getName());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).saveAndFlush(user);
     }
 
     @Test
@@ -102,7 +121,7 @@ class UserServiceImplTest {
                 () -> userService.update(userUpdate.getId(), UserMapperDto.toUserDto(userUpdate)));
 
         assertEquals("такого user не существует", entityNotFoundException.getMessage());
-        verify(userRepository, times(0)).save(user);
+        verify(userRepository, times(0)).saveAndFlush(user);
         verify(userRepository, times(1)).findById(userUpdate.getId());
     }
 
@@ -116,11 +135,12 @@ class UserServiceImplTest {
                 .build();
 
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        when(userRepository.findAllEmails()).thenReturn(List.of(userUpdate.getEmail()));
         when(userRepository.existsUserByEmailIs(userUpdate.getEmail())).thenThrow(ResponseStatusException.class);
 
         assertThrows(ResponseStatusException.class,
                 () -> userService.update(userUpdate.getId(), UserMapperDto.toUserDto(userUpdate)));
-        verify(userRepository, times(0)).save(user);
+        verify(userRepository, times(0)).saveAndFlush(user);
         verify(userRepository, times(1)).existsUserByEmailIs(userUpdate.getEmail());
     }
 
@@ -157,6 +177,9 @@ class UserServiceImplTest {
 
         verify(userRepository, times(1)).existsUserByIdIs(user.getId());
         verify(userRepository, times(1)).deleteUserByIdIs(user.getId());
+        verify(entityManagerFactory.getCache(), times(1)).evict(Item.class);
+        verify(bookingIntervalIndex, times(1)).invalidateAll();
+        verify(pointersService, times(1)).invalidateBooker(user.getId());
     }
 
     @Test
@@ -195,6 +218,7 @@ class UserServiceImplTest {
     @Test
     void save_shouldThrowEmailDuplicateException_whenUserWithEmailAlreadyExists() {
 
+        when(userRepository.findAllEmails()).thenReturn(List.of(userDto.getEmail()));
         when(userRepository.existsUserByEmailIs(userDto.getEmail())).thenReturn(true);
 
         assertThrows(EmailDuplicateException.class, () -> {
@@ -202,5 +226,46 @@ class UserServiceImplTest {
         });
 
         verify(userRepository, times(1)).existsUserByEmailIs(userDto.getEmail());
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("save новый email не проверяется запросом в БД")
+    void save_whenEmailDefinitelyNew_thenSkipExistenceQuery() {
+        when(userRepository.saveAndFlush(any())).thenReturn(user);
+
+        userService.save(userDto);
+
+        verify(userRepository, never()).existsUserByEmailIs(any());
+    }
+
+    @Test
+    @DisplayName("save нарушение UQ_EMAIL_USER превращается в EmailDuplicateException")
+    void save_whenConstraintViolated_thenEmailDuplicateException() {
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("UQ_EMAIL_USER"));
+
+        assertThrows(EmailDuplicateException.class, () -> userService.save(userDto));
+    }
+
+    @Test
+    @DisplayName("save нарушение других ограничений не выдаётся за дубликат email")
+    void save_whenOtherConstraintViolated_thenRethrow() {
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("not-null",
+                new ConstraintViolationException("NULL not allowed for column \"NAME\"", null, "NAME")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.save(userDto));
+    }
+
+    @Test
+    @DisplayName("update нарушение UQ_EMAIL_USER по имени ограничения")
+    void update_whenEmailConstraintViolated_thenConflict() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("could not execute",
+                new ConstraintViolationException("duplicate key", null, "uq_email_user")));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> userService.update(user.getId(), UserDto.builder().name("new").build()));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
     }
 }
\ No newline at end of file
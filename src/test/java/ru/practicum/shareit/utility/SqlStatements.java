@@ -0,0 +1,46 @@
+package ru.practicum.shareit.utility;
+
+import lombok.experimental.UtilityClass;
+import net.ttddyy.dsproxy.QueryType;
+import ru.practicum.shareit.monitoring.SqlStatementCounter;
+import ru.practicum.shareit.monitoring.SqlStatementRecorder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки числа SQL-запросов для тестов с {@code @Import(SqlMonitoringConfig.class)}.
+ */
+@UtilityClass
+public class SqlStatements {
+
+    public static SqlStatementCounter capture(SqlStatementRecorder recorder, Runnable action) {
+        SqlStatementCounter counter = recorder.start();
+        try {
+            action.run();
+        } finally {
+            recorder.stop();
+        }
+        return counter;
+    }
+
+    public static void assertAtMost(SqlStatementCounter counter, QueryType type, int max) {
+        assertTrue(counter.getCount(type) <= max,
+                "Ожидалось не больше " + max + " запросов " + type + ", выполнено: " + counter);
+    }
+
+    public static void assertSelectsAtMost(SqlStatementCounter counter, int max) {
+        assertAtMost(counter, QueryType.SELECT, max);
+    }
+
+    /**
+     * Суммарное время выполнения SQL-запросов, без времени маппинга и прочей работы сервиса.
+     * Время зависит от загрузки машины: для регрессий в модульных тестах проверяется число запросов,
+     * а не бюджет в миллисекундах.
+     */
+    public static void assertElapsedAtMost(SqlStatementCounter counter, Duration max) {
+        assertTrue(counter.getElapsedMillis() <= max.toMillis(),
+                "Ожидалось не больше " + max.toMillis() + " мс на SQL-запросы, выполнено: " + counter);
+    }
+}
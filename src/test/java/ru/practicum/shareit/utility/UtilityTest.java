@@ -13,7 +13,7 @@ public class UtilityTest {
         Pageable paginationWithSortDesc = Utility.paginationWithSort(null, null);
 
         assertEquals(0, paginationWithSortDesc.getPageNumber());
-        assertEquals(Integer.MAX_VALUE, paginationWithSortDesc.getPageSize());
+        assertEquals(Utility.UNPAGED_LIMIT, paginationWithSortDesc.getPageSize());
     }
 
     @Test
@@ -46,7 +46,7 @@ public class UtilityTest {
         Pageable paginationWithoutSort = Utility.paginationWithoutSort(null, null);
 
         assertEquals(0, paginationWithoutSort.getPageNumber());
-        assertEquals(Integer.MAX_VALUE, paginationWithoutSort.getPageSize());
+        assertEquals(Utility.UNPAGED_LIMIT, paginationWithoutSort.getPageSize());
     }
 
     @Test
@@ -56,4 +56,17 @@ public class UtilityTest {
 
         assertEquals("400 BAD_REQUEST \"Некорректные значения для создания пагинации\"", exception.getMessage());
     }
+
+    @Test
+    void pageSize_whenSizeNull_ThenReturnDefault() {
+        assertEquals(Utility.DEFAULT_PAGE_SIZE, Utility.pageSize(null));
+    }
+
+    @Test
+    void pageSize_whenSizeNegative_ThenThrowPaginationParameterException() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> Utility.pageSize(0));
+
+        assertEquals("400 BAD_REQUEST \"Некорректные значения для создания пагинации\"", exception.getMessage());
+    }
 }
\ No newline at end of file